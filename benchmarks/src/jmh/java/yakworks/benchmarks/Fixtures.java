@@ -0,0 +1,80 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import yakworks.commons.testing.pogos.Gadget;
+
+/**
+ * Shared fixtures for the benchmarks, built from the Gadget and Thing pogos.
+ */
+final class Fixtures {
+
+    /** the includes for the Gadget, basic props, enums, a nested object and a map */
+    static final List<String> GADGET_INCLUDES = Arrays.asList(
+        "id", "name", "inactive", "bigDecimal", "localDate", "localDateTime",
+        "kind", "status", "thing.name", "mapData", "stringList"
+    );
+
+    private Fixtures() { }
+
+    static List<Gadget> gadgets(int count) {
+        return Gadget.buildGadgets(count);
+    }
+
+    /**
+     * a nested map like what comes in from a json request body
+     */
+    static Map<String, Object> nestedMap(int id) {
+        Map<String, Object> address = new LinkedHashMap<>();
+        address.put("street", "123 Main " + id);
+        address.put("city", "Chicago");
+        address.put("zip", "60601");
+
+        Map<String, Object> thing = new LinkedHashMap<>();
+        thing.put("id", id + 100);
+        thing.put("name", "thingy" + id);
+        thing.put("address", address);
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", id);
+        map.put("name", "Gadget" + id);
+        map.put("inactive", false);
+        map.put("amount", 99.99 + id);
+        map.put("thing", thing);
+        map.put("tags", new ArrayList<>(Arrays.asList("rand", "galt")));
+        return map;
+    }
+
+    /**
+     * a flat map with the dot path keys, like what comes in from request params
+     */
+    static Map<String, Object> pathKeyMap(int id) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", id);
+        map.put("name", "Gadget" + id);
+        map.put("thing.id", id + 100);
+        map.put("thing.name", "thingy" + id);
+        map.put("thing.address.street", "123 Main " + id);
+        map.put("thing.address.city", "Chicago");
+        map.put("thing.address.zip", "60601");
+        map.put("customer.id", id + 200);
+        map.put("customer.name", "cust" + id);
+        return map;
+    }
+
+    static List<Map<String, Object>> nestedMaps(int count) {
+        List<Map<String, Object>> list = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            list.add(nestedMap(i));
+        }
+        return list;
+    }
+}
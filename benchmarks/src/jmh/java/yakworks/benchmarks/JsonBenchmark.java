@@ -0,0 +1,90 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import yakworks.commons.testing.pogos.Gadget;
+import yakworks.json.groovy.JsonBackend;
+import yakworks.json.groovy.JsonEngine;
+import yakworks.json.jackson.JacksonJson;
+import yakworks.json.jackson.JacksonJsonBackend;
+import yakworks.meta.BasicMetaEntityBuilder;
+import yakworks.meta.MetaEntity;
+import yakworks.meta.MetaMapList;
+
+/**
+ * Json generation with the groovy JsonEngine and with Jackson.
+ * The backend ones are the JsonEngine's JsonBackend implementations that produce the same output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonBenchmark {
+
+    @Param({"100", "1000"})
+    int rows;
+
+    List<Gadget> gadgets;
+    MetaEntity metaEntity;
+    MetaMapList hydratedList;
+    List<Map<String, Object>> maps;
+    JsonBackend jacksonBackend;
+
+    @Setup
+    public void setup() {
+        gadgets = Fixtures.gadgets(rows);
+        metaEntity = BasicMetaEntityBuilder.build(Gadget.class, Fixtures.GADGET_INCLUDES);
+        hydratedList = new MetaMapList(gadgets, metaEntity).hydrate();
+        maps = Fixtures.nestedMaps(rows);
+        jacksonBackend = new JacksonJsonBackend(new JsonEngine().build());
+    }
+
+    @Benchmark
+    public String jsonEngineMetaMapList() {
+        return JsonEngine.toJson(new MetaMapList(gadgets, metaEntity));
+    }
+
+    @Benchmark
+    public String jsonEngineHydrated() {
+        return JsonEngine.toJson(hydratedList);
+    }
+
+    @Benchmark
+    public String jsonEngineMaps() {
+        return JsonEngine.toJson(maps);
+    }
+
+    @Benchmark
+    public String jacksonBackendMaps() {
+        return jacksonBackend.toJson(maps);
+    }
+
+    @Benchmark
+    public String jacksonBackendGadgets() {
+        return jacksonBackend.toJson(gadgets);
+    }
+
+    @Benchmark
+    public String jsonEngineGadgets() {
+        return JsonEngine.toJson(gadgets);
+    }
+
+    @Benchmark
+    public String jacksonMaps() {
+        return JacksonJson.stringify(maps);
+    }
+}
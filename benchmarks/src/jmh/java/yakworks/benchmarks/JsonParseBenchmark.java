@@ -0,0 +1,55 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import groovy.json.JsonSlurper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import yakworks.json.groovy.JsonEngine;
+import yakworks.json.groovy.PooledJsonSlurper;
+
+/**
+ * Parsing small payloads with the plain JsonSlurper and the PooledJsonSlurper.
+ * Run with -prof gc to see the difference in allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonParseBenchmark {
+
+    /** number of rows in the payload, 10 is about 2KB and 100 about 20KB */
+    @Param({"10", "100"})
+    int rows;
+
+    String json;
+    JsonSlurper plainSlurper;
+    JsonSlurper pooledSlurper;
+
+    @Setup
+    public void setup() {
+        json = JsonEngine.toJson(Fixtures.nestedMaps(rows));
+        plainSlurper = new JsonSlurper();
+        pooledSlurper = new PooledJsonSlurper().setMaxPooledSize(1024 * 1024);
+    }
+
+    @Benchmark
+    public Object plainSlurper() {
+        return plainSlurper.parseText(json);
+    }
+
+    @Benchmark
+    public Object pooledSlurper() {
+        return pooledSlurper.parseText(json);
+    }
+}
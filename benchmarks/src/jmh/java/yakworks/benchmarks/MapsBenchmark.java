@@ -0,0 +1,80 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import yakworks.commons.map.LazyPathKeyMap;
+import yakworks.commons.map.MapFlattener;
+import yakworks.commons.map.Maps;
+import yakworks.commons.map.PathKeyMap;
+
+/**
+ * The map utils used on every request body and response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapsBenchmark {
+
+    Map<String, Object> nestedMap;
+    Map<String, Object> otherNestedMap;
+    Map<String, Object> pathKeyMap;
+    MapFlattener reusedFlattener;
+
+    @Setup
+    public void setup() {
+        nestedMap = Fixtures.nestedMap(1);
+        otherNestedMap = Fixtures.nestedMap(2);
+        pathKeyMap = Fixtures.pathKeyMap(1);
+        reusedFlattener = new MapFlattener();
+    }
+
+    @Benchmark
+    public Map<String, Object> mapFlattener() {
+        return MapFlattener.of(nestedMap).flatten();
+    }
+
+    @Benchmark
+    public Map<String, Object> mapFlattenerReused() {
+        //same instance for every row like an export does, keys come from its key tree
+        return reusedFlattener.flatten(nestedMap);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Map pathKeyMapInit() {
+        //init modifies the wrapped map so needs a new copy each time
+        return PathKeyMap.of(new LinkedHashMap<>(pathKeyMap)).init();
+    }
+
+    @Benchmark
+    public Map lazyPathKeyMapBuild() {
+        LazyPathKeyMap lazyMap = LazyPathKeyMap.of(pathKeyMap);
+        lazyMap.buildIfNeeded();
+        return lazyMap;
+    }
+
+    @Benchmark
+    public Map mapsClone() {
+        return Maps.clone(nestedMap);
+    }
+
+    @Benchmark
+    public Map mapsMerge() {
+        //merge modifies the target so clone it first, benchmarks the clone too so compare against mapsClone
+        return Maps.merge(Maps.clone(nestedMap), otherNestedMap);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import yakworks.commons.testing.pogos.Gadget;
+import yakworks.meta.BasicMetaEntityBuilder;
+import yakworks.meta.MetaEntity;
+import yakworks.meta.MetaMap;
+import yakworks.meta.MetaMapList;
+
+/**
+ * MetaEntity building and the MetaMap reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MetaBenchmark {
+
+    @Param({"100", "1000"})
+    int rows;
+
+    List<Gadget> gadgets;
+    Gadget gadget;
+    MetaEntity metaEntity;
+
+    @Setup
+    public void setup() {
+        gadgets = Fixtures.gadgets(rows);
+        gadget = gadgets.get(0);
+        metaEntity = BasicMetaEntityBuilder.build(Gadget.class, Fixtures.GADGET_INCLUDES);
+    }
+
+    @Benchmark
+    public MetaEntity buildMetaEntity() {
+        return BasicMetaEntityBuilder.build(Gadget.class, Fixtures.GADGET_INCLUDES);
+    }
+
+    @Benchmark
+    public void metaMapGet(Blackhole bh) {
+        MetaMap mmap = new MetaMap(gadget, metaEntity);
+        for (String key : mmap.keySet()) {
+            bh.consume(mmap.get(key));
+        }
+    }
+
+    @Benchmark
+    public void metaMapListIterate(Blackhole bh) {
+        MetaMapList mlist = new MetaMapList(gadgets, metaEntity);
+        for (MetaMap mmap : mlist) {
+            for (Map.Entry<String, Object> entry : mmap.entrySet()) {
+                bh.consume(entry.getValue());
+            }
+        }
+    }
+
+    @Benchmark
+    public MetaMapList metaMapListHydrate() {
+        return new MetaMapList(gadgets, metaEntity).hydrate();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.commons.beans;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import groovy.lang.MetaProperty;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import yakworks.util.ReflectionUtils;
+
+/**
+ * A prebuilt accessor for a single property.
+ * Used in hot paths (MetaMap, json generation, property paths) to avoid going through the Groovy MOP
+ * and its name lookups on every read. Build once per class and property and then reuse.
+ *
+ * @see PropertyTools#getPropertyGetter
+ */
+@FunctionalInterface
+public interface PropertyGetter {
+
+    /**
+     * @param bean the object to read the property from
+     * @return the property value
+     */
+    Object get(Object bean);
+
+    /**
+     * Getter that does a Map.get(key), same as groovy's map[key]
+     */
+    static PropertyGetter ofMapKey(final String key) {
+        return bean -> ((Map<?, ?>) bean).get(key);
+    }
+
+    /**
+     * Falls back to the Groovy MOP, same as groovy's source[prop]. Will throw MissingPropertyException if it does not exist.
+     */
+    static PropertyGetter ofMop(final String name) {
+        return bean -> InvokerHelper.getProperty(bean, name);
+    }
+
+    /**
+     * Uses the MetaProperty, which goes through its MetaMethod getter.
+     */
+    static PropertyGetter ofMetaProperty(final MetaProperty metaProperty) {
+        return metaProperty::getProperty;
+    }
+
+    /**
+     * Compiles the java getter Method to a MethodHandle.
+     * If the method is not accessible to the public lookup then it falls back to the reflection Method.invoke
+     */
+    static PropertyGetter ofMethod(final Method method) {
+        try {
+            MethodHandle mh = MethodHandles.publicLookup().unreflect(method)
+                .asType(MethodType.methodType(Object.class, Object.class));
+            return new MethodHandleGetter(mh);
+        } catch (IllegalAccessException ex) {
+            ReflectionUtils.makeAccessible(method);
+            return bean -> ReflectionUtils.invokeMethod(method, bean);
+        }
+    }
+
+    /**
+     * MethodHandle backed getter, the handle is adapted to (Object)Object so invokeExact can be used.
+     */
+    final class MethodHandleGetter implements PropertyGetter {
+        private final MethodHandle methodHandle;
+
+        MethodHandleGetter(MethodHandle methodHandle) {
+            this.methodHandle = methodHandle;
+        }
+
+        @Override
+        public Object get(Object bean) {
+            try {
+                return (Object) methodHandle.invokeExact(bean);
+            } catch (Throwable ex) {
+                ReflectionUtils.rethrowRuntimeException(ex);
+                return null;
+            }
+        }
+    }
+}
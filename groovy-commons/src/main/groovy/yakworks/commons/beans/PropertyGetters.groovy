@@ -0,0 +1,54 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.commons.beans
+
+import groovy.transform.CompileStatic
+
+/**
+ * The prebuilt PropertyGetters for a list of properties on a class, the index of the names matches the getters.
+ * Built once per class and reused, see MetaUtils.getPropertyGetters.
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class PropertyGetters {
+
+    /** the property names */
+    final String[] names
+
+    /** the getter for the property name at the same index */
+    final PropertyGetter[] getters
+
+    PropertyGetters(String[] names, PropertyGetter[] getters) {
+        this.names = names
+        this.getters = getters
+    }
+
+    /**
+     * builds the getters for the metaProperties
+     */
+    static PropertyGetters of(Collection<MetaProperty> metaProperties) {
+        String[] names = new String[metaProperties.size()]
+        PropertyGetter[] getters = new PropertyGetter[metaProperties.size()]
+        int i = 0
+        for (MetaProperty mp : metaProperties) {
+            names[i] = mp.name
+            getters[i] = PropertyTools.getPropertyGetter(mp)
+            i++
+        }
+        return new PropertyGetters(names, getters)
+    }
+
+    int size() {
+        return names.length
+    }
+
+    /**
+     * reads the value for the property at the index from the instance
+     */
+    Object getValue(Object instance, int index) {
+        return getters[index].get(instance)
+    }
+}
@@ -0,0 +1,233 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.commons.beans
+
+import java.util.concurrent.atomic.AtomicReference
+
+import groovy.transform.CompileStatic
+
+import yakworks.util.ConcurrentReferenceHashMap
+
+/**
+ * A compiled, dot notation, property path such as 'x.y.z'.
+ * The path is split once and each segment keeps the PropertyGetter for the last class it saw,
+ * so reading the same path from many rows is a getter call per hop instead of a tokenize and a dynamic source[prop].
+ *
+ * Maps are read with Map.get. Objects use the plain java getter when there is one and fall back to
+ * PropertyTools.getOrNull for fields, expandos and missing props, so a missing prop is null and not an exception.
+ *
+ * The getters are cached per class along with the metaClass they were built from, and are rebuilt when the class's
+ * metaClass in the registry changes, such as when Foo.metaClass.getBar = {...} replaces it with an ExpandoMetaClass.
+ * Call clearCache after changing an ExpandoMetaClass in place.
+ *
+ * Paths with an empty segment, such as 'a.', '.a' or 'a..b', are not valid and throw an IllegalArgumentException.
+ *
+ * Instances are immutable, apart from the getter cache, and thread safe. Use PropertyPath.of to get the shared one.
+ *
+ * Example:
+ *   PropertyPath.of('customer.address.city').getValue(invoice)
+ *
+ * @see PropertyTools#getProperty
+ * @since 3.20
+ */
+@CompileStatic
+class PropertyPath {
+
+    /** paths past this are compiled but not cached, keeps a runaway of dynamic paths from filling the heap */
+    static final int MAX_CACHE_SIZE = 10000
+
+    private static final Map<String, PropertyPath> CACHE = new ConcurrentReferenceHashMap<String, PropertyPath>(256)
+
+    //getters for the class and prop name, shared by all the paths. replaced on clearCache
+    private static volatile ClassValue<AtomicReference<ClassGetters>> classGetters = newClassGetters()
+
+    /** the original path */
+    final String path
+
+    private final Segment[] segments
+
+    protected PropertyPath(String path) {
+        if (!isValid(path)) throw new IllegalArgumentException("Property path [$path] is empty or has an empty segment")
+        this.path = path
+        List<String> names = path.tokenize('.')
+        segments = new Segment[names.size()]
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(names[i])
+        }
+    }
+
+    /**
+     * the shared compiled PropertyPath for the path
+     */
+    static PropertyPath of(String path) {
+        PropertyPath propPath = CACHE.get(path)
+        if (propPath == null) {
+            propPath = new PropertyPath(path)
+            if (CACHE.size() < MAX_CACHE_SIZE) {
+                PropertyPath existing = CACHE.putIfAbsent(path, propPath)
+                if (existing != null) propPath = existing
+            }
+        }
+        return propPath
+    }
+
+    /**
+     * true if the path is not empty and has no empty segments, 'a.', '.a' and 'a..b' are not valid
+     */
+    static boolean isValid(String path) {
+        return path && !path.startsWith('.') && !path.endsWith('.') && !path.contains('..')
+    }
+
+    /** clears the cached paths and getters, for when an ExpandoMetaClass was changed in place */
+    static void clearCache() {
+        classGetters = newClassGetters()
+        CACHE.clear()
+    }
+
+    private static ClassValue<AtomicReference<ClassGetters>> newClassGetters() {
+        return new ClassValue<AtomicReference<ClassGetters>>() {
+            @Override
+            protected AtomicReference<ClassGetters> computeValue(Class<?> type) {
+                return new AtomicReference<ClassGetters>()
+            }
+        }
+    }
+
+    /** number of segments in the path, 'x.y.z' has 3 */
+    int size() {
+        return segments.length
+    }
+
+    /** the last name in the path, for 'x.y.z' its 'z' */
+    String getLeaf() {
+        return segments.length ? segments[segments.length - 1].name : ''
+    }
+
+    /**
+     * @return value at the end of the path or null if any of the intermediate objects are null
+     */
+    Object getValue(Object source) {
+        return resolve(source, segments.length)
+    }
+
+    /**
+     * the value for the path minus the leaf, for 'x.y.z' its the value of 'x.y'. Returns the source if path has one segment.
+     */
+    Object getParent(Object source) {
+        return resolve(source, segments.length - 1)
+    }
+
+    protected Object resolve(Object source, int count) {
+        Object value = source
+        for (int i = 0; i < count; i++) {
+            if (value == null) return null
+            value = segments[i].get(value)
+        }
+        return value
+    }
+
+    /**
+     * the PropertyGetter for the prop name on the class, cached for the class and its current metaClass.
+     * Maps get a Map.get, the plain java getters use PropertyTools.getPropertyGetter and everything else goes
+     * through the null safe PropertyTools.getOrNull
+     */
+    static PropertyGetter getterFor(Class clazz, String name) {
+        return classGetters(clazz).get(name)
+    }
+
+    /**
+     * the getters for the class, rebuilt when the class's metaClass in the registry is not the one they were built from
+     */
+    protected static ClassGetters classGetters(Class clazz) {
+        AtomicReference<ClassGetters> ref = classGetters.get(clazz)
+        MetaClass metaClass = clazz.metaClass
+        ClassGetters getters = ref.get()
+        if (getters == null || !getters.metaClass.is(metaClass)) {
+            getters = new ClassGetters(clazz, metaClass)
+            ref.set(getters)
+        }
+        return getters
+    }
+
+    protected static PropertyGetter buildGetter(Class clazz, MetaClass metaClass, String name) {
+        if (Map.isAssignableFrom(clazz)) return PropertyGetter.ofMapKey(name)
+        if (!PropertyTools.hasCustomGetProperty(clazz)) {
+            MetaProperty mp = metaClass.getMetaProperty(name)
+            if (mp instanceof MetaBeanProperty && ((MetaBeanProperty) mp).getter) {
+                return PropertyTools.getPropertyGetter(mp)
+            }
+        }
+        return { Object bean -> PropertyTools.getOrNull(bean, name) } as PropertyGetter
+    }
+
+    @Override
+    String toString() {
+        return path
+    }
+
+    /**
+     * A name in the path with an inline cache of the getter for the last class it was read from.
+     */
+    @CompileStatic
+    static class Segment {
+        final String name
+        // class, getters and getter are swapped in together so threads never see a mismatched set
+        private volatile ClassGetter cached
+
+        Segment(String name) {
+            this.name = name
+        }
+
+        Object get(Object bean) {
+            if (bean instanceof Map) return ((Map) bean).get(name)
+            Class clazz = bean.getClass()
+            ClassGetters getters = classGetters(clazz)
+            ClassGetter cg = cached
+            //a new ClassGetters means the metaClass changed so the getter is stale too
+            if (cg == null || !cg.clazz.is(clazz) || !cg.getters.is(getters)) {
+                cg = new ClassGetter(clazz, getters, getters.get(name))
+                cached = cg
+            }
+            return cg.getter.get(bean)
+        }
+    }
+
+    @CompileStatic
+    static class ClassGetter {
+        final Class clazz
+        final ClassGetters getters
+        final PropertyGetter getter
+
+        ClassGetter(Class clazz, ClassGetters getters, PropertyGetter getter) {
+            this.clazz = clazz
+            this.getters = getters
+            this.getter = getter
+        }
+    }
+
+    /**
+     * the getters for a class keyed by prop name and the metaClass they were built from
+     */
+    @CompileStatic
+    static class ClassGetters {
+        final Class clazz
+        final MetaClass metaClass
+        private final Map<String, PropertyGetter> getters = new ConcurrentReferenceHashMap<String, PropertyGetter>(16)
+
+        ClassGetters(Class clazz, MetaClass metaClass) {
+            this.clazz = clazz
+            this.metaClass = metaClass
+        }
+
+        PropertyGetter get(String name) {
+            PropertyGetter getter = getters.get(name)
+            if (getter == null) {
+                getter = buildGetter(clazz, metaClass, name)
+                getters.put(name, getter)
+            }
+            return getter
+        }
+    }
+}
@@ -5,15 +5,23 @@
 package yakworks.commons.beans
 
 import java.lang.reflect.Method
+import java.lang.reflect.Modifier
 import java.lang.reflect.ParameterizedType
 import java.lang.reflect.Type
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicReference
 
 import groovy.transform.CompileStatic
+import groovy.transform.Generated
+import groovy.transform.Internal
 import groovy.util.logging.Slf4j
 
+import org.codehaus.groovy.reflection.CachedMethod
+
 import yakworks.commons.lang.ClassUtils
 import yakworks.commons.lang.NameUtils
 import yakworks.commons.lang.Validate
+import yakworks.util.ReflectionUtils
 
 /**
  * PropertyTools contains a set of static helpers, which provides a convenient way
@@ -53,6 +61,7 @@ class PropertyTools {
      * Return the value of the (probably nested if your using this) property of the specified name, for the specified source object
      *
      * Example getProperty(source, "x.y.z")
+     * Goes through the cached PropertyPath for the property so the path is only split and the getters looked up once.
      *
      * @param source - The source object
      * @param property - the property
@@ -62,19 +71,9 @@ class PropertyTools {
         Validate.notNull(source, '[source]')
         Validate.notEmpty(property, '[property]')
 
-        Object result
-
-        if(property.contains('.')) {
-            result = property.tokenize('.').inject(source) { Object obj, String prop ->
-                Object value = getOrNull(obj, prop)
-                return value
-            }
-        }
-        else {
-            result = getOrNull(source, property)
-        }
-
-        return result
+        //the empty segments, such as the trailing dot in 'a.', were always skipped here
+        if(!PropertyPath.isValid(property)) property = property.tokenize('.').join('.')
+        return property ? PropertyPath.of(property).getValue(source) : source
     }
 
     /**
@@ -132,7 +131,107 @@ class PropertyTools {
      * @return the type Class or null if non found
      */
     static MetaBeanProperty getMetaBeanProp(Class clazz, String prop) {
-        return clazz.metaClass.properties.find{ it.name == prop} as MetaBeanProperty
+        return getMetaBeanProps(clazz).get(prop)
+    }
+
+    /**
+     * The name to MetaBeanProperty index for the class, built from the metaClass properties and cached for the class.
+     * Its rebuilt when the class's metaClass in the registry is not the one it was built from,
+     * such as when its replaced by an ExpandoMetaClass. Call clearMetaBeanProps after changing an ExpandoMetaClass in place.
+     *
+     * @param clazz the the class to look in
+     * @return the read only map of MetaBeanProperty keyed by the property name
+     */
+    static Map<String, MetaBeanProperty> getMetaBeanProps(Class clazz) {
+        AtomicReference<MetaBeanPropIndex> ref = META_BEAN_PROPS.get(clazz)
+        MetaClass metaClass = clazz.metaClass
+        MetaBeanPropIndex index = ref.get()
+        if(index == null || !index.metaClass.is(metaClass)) {
+            index = new MetaBeanPropIndex(metaClass)
+            ref.set(index)
+        }
+        return index.props
+    }
+
+    /**
+     * drops the cached MetaBeanProperty index for the class so its rebuilt on the next call
+     */
+    static void clearMetaBeanProps(Class clazz) {
+        META_BEAN_PROPS.get(clazz).set(null)
+    }
+
+    private static final ClassValue<AtomicReference<MetaBeanPropIndex>> META_BEAN_PROPS =
+        new ClassValue<AtomicReference<MetaBeanPropIndex>>() {
+            @Override
+            protected AtomicReference<MetaBeanPropIndex> computeValue(Class<?> type) {
+                return new AtomicReference<MetaBeanPropIndex>()
+            }
+        }
+
+    /**
+     * the MetaBeanProperty index and the metaClass it was built from
+     */
+    @CompileStatic
+    static class MetaBeanPropIndex {
+        final MetaClass metaClass
+        final Map<String, MetaBeanProperty> props
+
+        MetaBeanPropIndex(MetaClass metaClass) {
+            this.metaClass = metaClass
+            Map<String, MetaBeanProperty> map = new HashMap<String, MetaBeanProperty>()
+            for (MetaProperty mp : metaClass.properties) {
+                //first one wins, same as a find on the list
+                if(mp instanceof MetaBeanProperty && !map.containsKey(mp.name)) map.put(mp.name, (MetaBeanProperty)mp)
+            }
+            this.props = Collections.unmodifiableMap(map)
+        }
+    }
+
+    /**
+     * Builds a PropertyGetter that can be cached and reused to read the property on instances of the class.
+     * Uses a MethodHandle for the plain java getters and falls back to the MetaProperty or the MOP
+     * when the metaClass has overriden it or when the class has its own getProperty.
+     * Maps always get a getter that does a Map.get.
+     *
+     * @param clazz the the class to look in
+     * @param prop the property name
+     * @return the PropertyGetter, never null
+     */
+    static PropertyGetter getPropertyGetter(Class clazz, String prop) {
+        if(Map.isAssignableFrom(clazz)) return PropertyGetter.ofMapKey(prop)
+        if(hasCustomGetProperty(clazz)) return PropertyGetter.ofMop(prop)
+
+        MetaProperty mp = clazz.metaClass.getMetaProperty(prop)
+        if(mp instanceof MetaBeanProperty && ((MetaBeanProperty)mp).getter) {
+            return getPropertyGetter(mp)
+        }
+        //fields, expando props or missing, let the MOP sort it out
+        return PropertyGetter.ofMop(prop)
+    }
+
+    /**
+     * Builds a PropertyGetter for the MetaProperty, same as calling mp.getProperty(instance).
+     * Uses a MethodHandle when its a plain java getter.
+     */
+    static PropertyGetter getPropertyGetter(MetaProperty mp) {
+        if(mp instanceof MetaBeanProperty) {
+            MetaMethod getter = ((MetaBeanProperty)mp).getter
+            if(getter instanceof CachedMethod && !Modifier.isStatic(getter.modifiers)) {
+                return PropertyGetter.ofMethod(((CachedMethod)getter).cachedMethod)
+            }
+        }
+        return PropertyGetter.ofMetaProperty(mp)
+    }
+
+    /**
+     * true if its a GroovyObject that implements its own getProperty(String), such as an Expando.
+     * Those can't be short circuited and need to go through the MOP
+     */
+    static boolean hasCustomGetProperty(Class clazz) {
+        if(!GroovyObject.isAssignableFrom(clazz)) return false
+        Method m = clazz.getMethod('getProperty', String)
+        return m.declaringClass != GroovyObject && m.declaringClass != GroovyObjectSupport &&
+            !m.isAnnotationPresent(Internal) && !m.isAnnotationPresent(Generated)
     }
 
     /**
@@ -158,23 +257,63 @@ class PropertyTools {
         return findGenericTypeForCollection(clazz, prop).typeName
     }
 
+    /**
+     * Finds the generic type for a collection property, see findGenericForCollection.
+     * Looks for the getter on the class, then its superclasses and interfaces,
+     * and the result is cached for the class and property.
+     *
+     * @param clazz the class to look on
+     * @param prop the class property to check
+     * @return the generic type or java.lang.Object if no generic found
+     */
     static Type findGenericTypeForCollection(Class clazz, String prop){
-        Method[] allMethods = clazz.getDeclaredMethods()
-        String getterName = NameUtils.getGetterName(prop)
+        Map<String, Type> types = COLLECTION_GENERIC_TYPES.get(clazz)
+        Type type = types.get(prop)
+        if(type == null) {
+            type = resolveGenericTypeForCollection(clazz, NameUtils.getGetterName(prop))
+            types.put(prop, type)
+        }
+        return type
+    }
 
+    private static final ClassValue<Map<String, Type>> COLLECTION_GENERIC_TYPES = new ClassValue<Map<String, Type>>() {
+        @Override
+        protected Map<String, Type> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<String, Type>()
+        }
+    }
+
+    /**
+     * walks the class, its superclasses and their interfaces for the getter, the first one found wins.
+     */
+    private static Type resolveGenericTypeForCollection(Class clazz, String getterName){
+        Class searchType = clazz
+        while (searchType != null && searchType != Object) {
+            Method m = findGetter(ReflectionUtils.getDeclaredMethods(searchType), getterName)
+            if(m) return collectionTypeArg(m)
+            for (Class ifc : searchType.interfaces) {
+                m = findGetter(ifc.methods, getterName)
+                if(m) return collectionTypeArg(m)
+            }
+            searchType = searchType.superclass
+        }
         //defaults to java.lang.Object
-        Type type = Object
+        return Object
+    }
 
-        Method m = allMethods.find { it.name == getterName}
+    private static Method findGetter(Method[] methods, String getterName){
+        for (Method m : methods) {
+            if(m.name == getterName && m.parameterCount == 0 && !m.isBridge()) return m
+        }
+        return null
+    }
 
-        if(m){
-            def genericReturnType = m.getGenericReturnType()
-            if(genericReturnType && genericReturnType instanceof ParameterizedType){
-                Type[] actualTypeArguments = genericReturnType.getActualTypeArguments()
-                return actualTypeArguments[0]
-            }
+    private static Type collectionTypeArg(Method m){
+        Type genericReturnType = m.getGenericReturnType()
+        if(genericReturnType instanceof ParameterizedType){
+            return ((ParameterizedType)genericReturnType).getActualTypeArguments()[0]
         }
-        return type
+        return Object
     }
 
     /**
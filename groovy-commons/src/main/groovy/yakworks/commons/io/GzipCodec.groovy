@@ -0,0 +1,89 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.commons.io
+
+import java.util.concurrent.Executor
+import java.util.zip.Deflater
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+
+import groovy.transform.CompileStatic
+import groovy.transform.builder.Builder
+import groovy.transform.builder.SimpleStrategy
+
+/**
+ * Gzip StreamCodec using the jdk's Deflater.
+ * When parallel is true the output is split into blocks of blockSize that get compressed on the executor,
+ * each as its own gzip member, see ParallelGzipOutputStream.
+ *
+ * Example:
+ *   new JsonStreaming().codec(new GzipCodec().level(Deflater.BEST_SPEED)).writeArray(rows, path)
+ *
+ * @since 3.20
+ */
+@Builder(builderStrategy= SimpleStrategy, prefix="")
+@CompileStatic
+class GzipCodec implements StreamCodec {
+
+    /** the size of the deflater and inflater buffers */
+    int bufferSize = 8192
+
+    /** the compression level, 1 (BEST_SPEED) to 9 (BEST_COMPRESSION) */
+    int level = Deflater.DEFAULT_COMPRESSION
+
+    /** compress blocks in parallel on the executor */
+    boolean parallel = false
+
+    /** the uncompressed size of each block when parallel */
+    int blockSize = 128 * 1024
+
+    /** the executor for the parallel blocks, defaults to the ForkJoinPool.commonPool */
+    Executor executor
+
+    /** the max number of blocks queued or being compressed when parallel, defaults to 2 times the number of processors */
+    int maxInFlight = 0
+
+    @Override
+    OutputStream compress(OutputStream out) {
+        if (parallel) {
+            return new ParallelGzipOutputStream(out, blockSize, level, executor, maxInFlight)
+        }
+        return gzipStream(out, level, bufferSize)
+    }
+
+    @Override
+    InputStream decompress(InputStream inputStream) {
+        //GZIPInputStream reads concatenated members so this works for the parallel output too
+        return new GZIPInputStream(inputStream, bufferSize)
+    }
+
+    @Override
+    String getExtension() {
+        return ".gz"
+    }
+
+    /**
+     * a GZIPOutputStream with the compression level set
+     */
+    static GZIPOutputStream gzipStream(OutputStream out, int level, int bufferSize) {
+        return new LevelGzipOutputStream(out, level, bufferSize)
+    }
+
+    /**
+     * GZIPOutputStream only exposes the Deflater to subclasses, so this is to set the level
+     */
+    @CompileStatic
+    static class LevelGzipOutputStream extends GZIPOutputStream {
+
+        LevelGzipOutputStream(OutputStream out, int level, int bufferSize) {
+            super(out, bufferSize)
+            getDeflater().setLevel(level)
+        }
+
+        Deflater getDeflater() {
+            return this.@'def'
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.commons.io
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
+import java.util.concurrent.ForkJoinPool
+import java.util.function.Supplier
+
+import groovy.transform.CompileStatic
+
+import yakworks.commons.util.Futures
+
+/**
+ * Gzip OutputStream that compresses blocks in parallel, like pigz.
+ * Whats written is collected into blocks of blockSize, each full block is gzipped on the executor
+ * as its own gzip member and the members are written to the out stream in order.
+ * Concatenated gzip members are a valid gzip file that gunzip and GZIPInputStream read as one.
+ * At most maxInFlight blocks are held at once so memory stays bounded.
+ *
+ * Not thread safe, same as the other OutputStreams. flush() ends the current block early,
+ * so calling it often makes the compression worse.
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class ParallelGzipOutputStream extends OutputStream {
+
+    final OutputStream out
+    final int blockSize
+    final int level
+    final Executor executor
+    final int maxInFlight
+
+    private byte[] block
+    private int count = 0
+    private long membersWritten = 0
+    private boolean closed = false
+    private final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<CompletableFuture<byte[]>>()
+
+    /**
+     * @param out the stream to write the gzip members to
+     * @param blockSize the uncompressed size of each block
+     * @param level the Deflater compression level
+     * @param executor the executor to compress on, defaults to the ForkJoinPool.commonPool when null
+     * @param maxInFlight max blocks queued or compressing, defaults to 2 times the number of processors when 0
+     */
+    ParallelGzipOutputStream(OutputStream out, int blockSize, int level, Executor executor, int maxInFlight) {
+        if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be greater than 0")
+        this.out = out
+        this.blockSize = blockSize
+        this.level = level
+        this.executor = executor ?: ForkJoinPool.commonPool()
+        this.maxInFlight = maxInFlight > 0 ? maxInFlight : Math.max(2, Runtime.getRuntime().availableProcessors() * 2)
+        this.block = new byte[blockSize]
+    }
+
+    @Override
+    void write(int b) {
+        ensureOpen()
+        block[count++] = (byte)b
+        if (count == blockSize) submitBlock()
+    }
+
+    @Override
+    void write(byte[] bytes, int off, int len) {
+        ensureOpen()
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count)
+            System.arraycopy(bytes, off, block, count, n)
+            count += n
+            off += n
+            len -= n
+            if (count == blockSize) submitBlock()
+        }
+    }
+
+    /**
+     * compresses whats in the current block, waits for all the blocks and flushes them to the out stream
+     */
+    @Override
+    void flush() {
+        ensureOpen()
+        submitBlock()
+        writePending(0)
+        out.flush()
+    }
+
+    /**
+     * Finishes writing the compressed data without closing the out stream
+     */
+    void finish() {
+        ensureOpen()
+        submitBlock()
+        writePending(0)
+        //an empty member so its still a valid gzip when nothing was written
+        if (membersWritten == 0) writeMember(gzipBlock(new byte[0], 0, level))
+    }
+
+    @Override
+    void close() {
+        if (closed) return
+        try {
+            finish()
+        } finally {
+            closed = true
+            //if it failed then dont leave them running
+            for (CompletableFuture future : pending) future.cancel(false)
+            pending.clear()
+            out.close()
+        }
+    }
+
+    /**
+     * hands the current block off to the executor, writing out the oldest ones if there are too many in flight
+     */
+    protected void submitBlock() {
+        if (count == 0) return
+        final byte[] data = block
+        final int len = count
+        final int lvl = level
+        block = new byte[blockSize]
+        count = 0
+        pending.add(CompletableFuture.supplyAsync({ gzipBlock(data, len, lvl) } as Supplier<byte[]>, executor))
+        writePending(maxInFlight - 1)
+    }
+
+    /**
+     * writes the completed members in order until there are only maxPending left
+     */
+    protected void writePending(int maxPending) {
+        while (pending.size() > maxPending) {
+            writeMember(Futures.await(pending.poll()))
+        }
+    }
+
+    protected void writeMember(byte[] member) {
+        out.write(member)
+        membersWritten++
+    }
+
+    protected void ensureOpen() {
+        if (closed) throw new IOException("Stream closed")
+    }
+
+    /**
+     * gzips the bytes as a complete gzip member
+     */
+    static byte[] gzipBlock(byte[] data, int len, int level) {
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream(Math.max(64, len.intdiv(2) as int))
+        OutputStream gzip = GzipCodec.gzipStream(bytesOut, level, 8192)
+        gzip.write(data, 0, len)
+        gzip.close()
+        return bytesOut.toByteArray()
+    }
+}
@@ -0,0 +1,34 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.commons.io
+
+import groovy.transform.CompileStatic
+
+/**
+ * Pluggable compression for streams, so exports can be compressed in one pass as they are written
+ * instead of writing the file and zipping it afterwards. See GzipCodec.
+ * Other formats such as zstd can be plugged in by implementing this with the library for it.
+ *
+ * @since 3.20
+ */
+@CompileStatic
+interface StreamCodec {
+
+    /**
+     * wraps the stream so whats written to it is compressed.
+     * Closing the returned stream finishes the compressed data and closes the out stream.
+     */
+    OutputStream compress(OutputStream out)
+
+    /**
+     * wraps the stream so its decompressed as its read
+     */
+    InputStream decompress(InputStream inputStream)
+
+    /**
+     * the file extension with the dot, for example ".gz"
+     */
+    String getExtension()
+}
@@ -0,0 +1,146 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.commons.map
+
+import groovy.transform.CompileStatic
+
+/**
+ * Compact read only map backed by an Object[] of values and a Keys instance that is meant to be shared
+ * across many maps with the same shape, such as the rows of a result set.
+ * Each map only holds its values array, there is no Entry per key or hash table per map like a LinkedHashMap.
+ * Key order is the order of the Keys. Null values are kept.
+ *
+ * Example:
+ *   def keys = CompactMap.Keys.of(['id', 'name'])
+ *   def row1 = new CompactMap(keys, [1, 'foo'] as Object[])
+ *   def row2 = new CompactMap(keys, [2, 'bar'] as Object[])
+ *
+ * @see yakworks.meta.MetaMap#hydrateCompact
+ */
+@CompileStatic
+class CompactMap extends AbstractMap<String, Object> implements Serializable {
+    private static final long serialVersionUID = 1L
+
+    /** the shared keys */
+    final Keys keys
+
+    private final Object[] valueArray
+
+    /**
+     * @param keys the shared keys
+     * @param values the values, length must match the keys. Its not copied so dont modify it after.
+     */
+    CompactMap(Keys keys, Object[] values) {
+        if(keys.size() != values.length) {
+            throw new IllegalArgumentException("values length ${values.length} does not match keys size ${keys.size()}")
+        }
+        this.keys = keys
+        this.valueArray = values
+    }
+
+    @Override
+    int size() {
+        return valueArray.length
+    }
+
+    @Override
+    boolean containsKey(Object key) {
+        return keys.indexOf(key) > -1
+    }
+
+    @Override
+    Object get(Object key) {
+        int idx = keys.indexOf(key)
+        return idx > -1 ? valueArray[idx] : null
+    }
+
+    /**
+     * the value at the index for the keys
+     */
+    Object valueAt(int index) {
+        return valueArray[index]
+    }
+
+    @Override
+    Set<String> keySet() {
+        return keys.keySet
+    }
+
+    @Override
+    Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            Iterator<Map.Entry<String, Object>> iterator() {
+                return new Iterator<Map.Entry<String, Object>>() {
+                    int idx = 0
+
+                    @Override
+                    boolean hasNext() {
+                        return idx < valueArray.length
+                    }
+
+                    @Override
+                    Map.Entry<String, Object> next() {
+                        if(idx >= valueArray.length) throw new NoSuchElementException()
+                        Map.Entry<String, Object> entry = new AbstractMap.SimpleImmutableEntry<String, Object>(keys.names[idx], valueArray[idx])
+                        idx++
+                        return entry
+                    }
+                }
+            }
+
+            @Override
+            int size() {
+                return valueArray.length
+            }
+        }
+    }
+
+    /**
+     * The keys and their index, immutable and meant to be shared across the maps.
+     */
+    @CompileStatic
+    static class Keys implements Serializable {
+        private static final long serialVersionUID = 1L
+
+        final String[] names
+
+        private final Map<String, Integer> indexes
+
+        private final Set<String> keySet
+
+        /**
+         * @param names the key names, not copied so dont modify it after
+         */
+        Keys(String[] names) {
+            this.names = names
+            this.indexes = new HashMap<String, Integer>(names.length * 2)
+            for (int i = 0; i < names.length; i++) {
+                indexes.put(names[i], i)
+            }
+            this.keySet = Collections.unmodifiableSet(new LinkedHashSet<String>(Arrays.asList(names)))
+        }
+
+        static Keys of(Collection<String> names) {
+            return new Keys(names as String[])
+        }
+
+        /**
+         * @return the index for the key or -1 if its not one of the keys
+         */
+        int indexOf(Object key) {
+            Integer idx = indexes.get(key)
+            return idx == null ? -1 : idx
+        }
+
+        int size() {
+            return names.length
+        }
+
+        Set<String> getKeySet() {
+            return keySet
+        }
+    }
+}
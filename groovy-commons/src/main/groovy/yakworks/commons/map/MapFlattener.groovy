@@ -4,6 +4,7 @@
 */
 package yakworks.commons.map
 
+import java.time.temporal.TemporalAccessor
 
 import groovy.transform.CompileStatic
 import groovy.transform.builder.Builder
@@ -16,13 +17,21 @@ import yakworks.commons.lang.IsoDateUtil
  * can be used in CSV or excel, where keys or header is expected to
  * look like `foo.bar: 'val` for an object like `foo:[bar: 'val']`
  * Ideas taken from here https://github.com/dmillett/jConfigMap
+ *
+ * Flattens in a single pass straight into the one result map. The dot keys are kept in a tree that mirrors the
+ * shape of the data, so when the same instance is used to flatten many rows with the same shape,
+ * such as in an export, the keys are only built once and the result map is presized to the last row's size.
+ * Not thread safe, use an instance per thread.
+ *
+ * Example:
+ *   MapFlattener flattener = new MapFlattener().convertObjectToString(true)
+ *   rows.each { Map row -> csvWriter.write(flattener.flatten(row)) }
  */
 @Builder(builderStrategy= SimpleStrategy, prefix="")
 @CompileStatic
 class MapFlattener {
 
     Map<String, Object> target
-    private final KeyVersion keyVersion = new KeyVersion()
     boolean convertEmptyStringsToNull = true
 
     /**
@@ -31,6 +40,11 @@ class MapFlattener {
      */
     boolean convertObjectToString = false
 
+    //the dot keys seen so far, reused across flatten calls
+    private final KeyNode rootKey = new KeyNode('')
+    //size of the last result, to presize the next one
+    private int lastSize = 0
+
     /**
      * Groovy transforms JSON to either a Map or List based on the root node.
      */
@@ -56,18 +70,14 @@ class MapFlattener {
      * Flattens either a List or Map
      */
     Map<String, Object> flatten(Object objectToFlatten) {
-
-        Map<String, Object> keyValues = [:]
-
-        if (objectToFlatten == null) {
-            return keyValues
-        }
+        Map<String, Object> keyValues = new LinkedHashMap<String, Object>(lastSize ? (int)(lastSize / 0.75f) + 1 : 16)
 
         if (objectToFlatten instanceof Map) {
-            keyValues.putAll(transformMap((Map) objectToFlatten, ""))
+            writeMap((Map) objectToFlatten, rootKey, keyValues)
         } else if (objectToFlatten instanceof List) {
-            keyValues.putAll(transformList((List) objectToFlatten, ""))
+            writeList((List) objectToFlatten, rootKey, keyValues)
         }
+        if(keyValues.size()) lastSize = keyValues.size()
 
         return keyValues
     }
@@ -76,102 +86,171 @@ class MapFlattener {
      * Iterates through each Map entry and transforms any sub-maps or sub-arrays
      * therein. Otherwise, it is just a string "key" and "value".
      */
-    @SuppressWarnings(['EmptyCatchBlock'])
     Map<String, Object> transformMap(Map dataMap, String currentName) {
+        Map<String, Object> keyValues = [:]
+        if (dataMap) writeMap(dataMap, keyNode(currentName), keyValues)
+        return keyValues
+    }
 
-        if (dataMap == null || dataMap.isEmpty()) {
-            return [:]
-        }
-
+    /**
+     * Flatten Groovy-JSON Array objects
+     */
+    Map<String, Object> transformList(List jsonArray, String currentName) {
         Map<String, Object> keyValues = [:]
+        if (jsonArray) writeList(jsonArray, keyNode(currentName), keyValues)
+        return keyValues
+    }
 
-        dataMap.each {  Map.Entry entry ->
+    protected KeyNode keyNode(String currentName) {
+        return currentName ? new KeyNode(currentName) : rootKey
+    }
+
+    /**
+     * writes the flattened entries of the dataMap into the keyValues
+     */
+    protected void writeMap(Map dataMap, KeyNode node, Map<String, Object> keyValues) {
+        if (dataMap.isEmpty()) return
 
-            String key = String.valueOf(entry.key)
-            if (currentName != null && !currentName.empty) {
-                key = currentName + "." + key
+        for (Object o : dataMap.entrySet()) {
+            Map.Entry entry = (Map.Entry) o
+            KeyNode child = node.field(entry.key)
+            Object value = entry.value
+
+            if (value instanceof List) {
+                writeList((List) value, child, keyValues)
+                continue
             }
-            //if it is an association id, then set value to 'null' to set the association to null
-            if ((key && key.toString().endsWith(".id")) && (entry.value == null || entry.value.toString() == 'null' || entry.value.toString().trim() == "")) {
-                keyVersion.updateMapWithKeyValue(keyValues, key, "null")
-            } else if (entry.value == null || entry.value?.toString() == 'null') {
-                keyVersion.updateMapWithKeyValue(keyValues, key, null)
-            } else if (entry.value instanceof List) {
-                Map<String, Object> jsonListKeyValues = transformList(entry.value as List, key)
-                keyValues.putAll(jsonListKeyValues)
-            } else if (entry.value instanceof Map) {
-                Map<String, Object> jsonMapKeyValues = transformMap(entry.value as Map, key)
-                keyValues.putAll(jsonMapKeyValues)
-            } else if (entry.value instanceof CharSequence) {
-                doString(keyValues, key, entry.value)
+            if (value instanceof Map) {
+                writeMap((Map) value, child, keyValues)
+                continue
             }
-            else {
-                if(convertObjectToString) {
-                    doString(keyValues, key, entry.value)
-                } else {
-                    keyVersion.updateMapWithKeyValue(keyValues, key, entry.value)
-                }
+            keyValues.put(child.key, flatValue(value, child.idKey))
+        }
+    }
+
+    /**
+     * writes the list itself under its key and then the flattened items with the index in the key
+     */
+    protected void writeList(List jsonArray, KeyNode node, Map<String, Object> keyValues) {
+        if (jsonArray.isEmpty()) return
+
+        keyValues.put(node.key, jsonArray)
+        int index = 0
+        for (Object item : jsonArray) {
+            KeyNode child = node.item(index++)
+            if (item == null) {
+                keyValues.put(child.key, null)
+            } else if (item instanceof Map) {
+                writeMap((Map) item, child, keyValues)
+            } else if (item instanceof List) {
+                writeList((List) item, child, keyValues)
+            } else {
+                keyValues.put(child.key, String.valueOf(item))
             }
         }
+    }
 
-        return keyValues
+    /**
+     * the toString to check for 'null' and blanks, null for the types that can never be either so its not built.
+     */
+    protected static String valueString(Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean ||
+            value instanceof Date || value instanceof TemporalAccessor) {
+            return null
+        }
+        return value.toString()
+    }
+
+    /**
+     * The value as its put in the flattened map for a map entry value that is not a Map or List.
+     * - 'null' strings are null
+     * - if it is an association id, key ends with .id, then nulls and blanks are the string 'null' to set the association to null
+     * - strings, and everything when convertObjectToString=true, go through stringValue
+     *
+     * @param value the map entry value
+     * @param idKey true if the key ends with .id
+     */
+    Object flatValue(Object value, boolean idKey) {
+        String str = valueString(value)
+        boolean isNull = value == null || str == 'null'
+        if (idKey && (isNull || (str != null && str.trim().isEmpty()))) return 'null'
+        if (isNull) return null
+        if (value instanceof CharSequence || convertObjectToString) return stringValue(value)
+        return value
     }
 
     /**
      * used when convertObjectToString=true and for strings
      * - turns objects to strings, if data then does iso JSON like date
      * - converts empty strings to null
-     * -
-     *
      */
-    String doString(Map<String, Object> keyValues, String key, Object value){
+    String stringValue(Object value){
         if(IsoDateUtil.isDate(value)){
-            def sdate= IsoDateUtil.format(value)
-            keyVersion.updateMapWithKeyValue(keyValues, key, sdate)
-            return sdate
+            return IsoDateUtil.format(value)
         }
-        String v = String.valueOf(value)
-        v = v.trim()
+        String v = String.valueOf(value).trim()
         if ("" == v && convertEmptyStringsToNull) {
             v = null
         }
-        keyVersion.updateMapWithKeyValue(keyValues, key, v)
         return v
     }
 
     /**
-     * Flatten Groovy-JSON Array objects
+     * puts the stringValue in the keyValues
      */
-    Map<String, Object> transformList(List jsonArray, String currentName) {
+    String doString(Map<String, Object> keyValues, String key, Object value){
+        String v = stringValue(value)
+        keyValues.put(key, v)
+        return v
+    }
 
-        if (jsonArray == null || jsonArray.empty) {
-            return [:]
+    /**
+     * A node in the tree of flattened keys, holds the full dot key so its only built the first time its seen.
+     * Map keys are children by name and list items by index.
+     */
+    @CompileStatic
+    static class KeyNode {
+        /** the full dot key */
+        final String key
+        /** true when the key ends with .id */
+        final boolean idKey
+
+        private Map<String, KeyNode> fields
+        private KeyNode[] items
+
+        KeyNode(String key) {
+            this.key = key
+            this.idKey = key.endsWith('.id')
         }
 
-        Map keyValues = [:] as Map<String, Object>
-        keyValues.put(currentName, jsonArray)
-
-        int index = 0
-
-        jsonArray.each { item ->
-            String arrayName = [currentName, index++].join('.')
-            if (item == null) {
-                keyValues.put(arrayName, null)
-            } else if (item instanceof Map) {
-                Map<String, Object> jsonMapKeyValues = transformMap(item as Map, arrayName)
-                keyVersion.updateMapWithKeyValues(keyValues, jsonMapKeyValues)
-            } else if (item instanceof List) {
-                Map<String, Object> jsonArrayKeyValues = transformList(item as List, arrayName)
-                keyVersion.updateMapWithKeyValues(keyValues, jsonArrayKeyValues)
-            } else {
-                String value = String.valueOf(item)
-                keyVersion.updateMapWithKeyValue(keyValues, arrayName, value)
+        /** the child for the map key, key is just the name when this is the root */
+        KeyNode field(Object name) {
+            String sname = String.valueOf(name)
+            if (fields == null) fields = new HashMap<String, KeyNode>()
+            KeyNode child = fields.get(sname)
+            if (child == null) {
+                child = new KeyNode(key.isEmpty() ? sname : new StringBuilder(key.length() + sname.length() + 1)
+                    .append(key).append('.' as char).append(sname).toString())
+                fields.put(sname, child)
             }
+            return child
         }
 
-        return keyValues as Map<String, Object>
+        /** the child for the list index, key is always prefixed with the dot, so its '.0' on the root */
+        KeyNode item(int index) {
+            if (items == null) {
+                items = new KeyNode[Math.max(index + 1, 4)]
+            } else if (index >= items.length) {
+                items = Arrays.copyOf(items, Math.max(index + 1, items.length * 2))
+            }
+            KeyNode child = items[index]
+            if (child == null) {
+                child = new KeyNode(key + '.' + index)
+                items[index] = child
+            }
+            return child
+        }
     }
-
 }
 
 @CompileStatic
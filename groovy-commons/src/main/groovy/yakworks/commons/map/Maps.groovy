@@ -7,6 +7,7 @@ package yakworks.commons.map
 import groovy.transform.CompileStatic
 import groovy.util.logging.Slf4j
 
+import yakworks.commons.beans.PropertyPath
 import yakworks.commons.beans.PropertyTools
 import yakworks.commons.lang.Validate
 import yakworks.commons.util.StringUtils
@@ -26,7 +27,7 @@ class Maps {
 
 
     /**
-     * Return the value of a nested path. Alias to PropertyTools.getProperty.
+     * Return the value of a nested path. Alias to PropertyTools.getProperty, uses the cached PropertyPath.
      *
      * Example Maps.getProperty(source, "x.y.z")
      *
@@ -87,12 +88,12 @@ class Maps {
      */
     static Object remove(Map map, String key) {
         if(key.contains('.')) {
-            List<String> keyTokens = key.tokenize('.')
-            String keyToRemove = keyTokens.remove(keyTokens.size() - 1)//last key after dot
-            String parentKey = keyTokens.join('.')
-            Object parent = value(map, parentKey)
-            if(parent && parent instanceof Map) {
-                return parent.remove(keyToRemove)
+            //a key with an empty segment such as 'a.' is not a path to anything
+            if(!PropertyPath.isValid(key)) return null
+            PropertyPath path = PropertyPath.of(key)
+            Object parent = path.getParent(map)
+            if(parent instanceof Map) {
+                return ((Map)parent).remove(path.leaf)
             }
             return null
         }
@@ -107,11 +108,10 @@ class Maps {
      */
     static boolean containsKey(Map map, String key) {
         if(key.contains('.')) {
-            List<String> keyTokens = key.tokenize('.')
-            String lastKey = keyTokens.remove(keyTokens.size() - 1)//last key after dot
-            String parentKey = keyTokens.join('.')
-            Object parent = value(map, parentKey)
-            return parent && (parent instanceof Map) && parent.containsKey(lastKey)
+            if(!PropertyPath.isValid(key)) return false
+            PropertyPath path = PropertyPath.of(key)
+            Object parent = path.getParent(map)
+            return (parent instanceof Map) && ((Map)parent).containsKey(path.leaf)
         }
         else {
             return map.containsKey(key)
@@ -0,0 +1,226 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.commons.map
+
+import groovy.transform.CompileStatic
+
+import yakworks.commons.beans.PropertyPath
+import yakworks.meta.MetaEntity
+
+/**
+ * Flattens rows that all have the same shape, such as the results for a CSV or excel export,
+ * into fixed width Object[] that line up with a header of dot path columns.
+ * The values are the same as a MapFlattener would give for the key, but each row is read with the precompiled
+ * column paths, so no flat map or key strings are made per row.
+ *
+ * The columns are set up front, for example from MetaEntity.flattenProps(), or learned from the keys
+ * MapFlattener gives for the first sampleSize rows. Used with an Iterator of rows its streaming,
+ * only the sample rows are held in memory.
+ *
+ * Not thread safe, use an instance per export.
+ *
+ * Example:
+ *   RowFlattener rowFlattener = RowFlattener.of(metaEntity).convertObjectToString(true)
+ *   csvWriter.writeNext(rowFlattener.header)
+ *   rowFlattener.flatten(rows.iterator()).each { Object[] row -> csvWriter.writeNext(row) }
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class RowFlattener {
+
+    static final int DEFAULT_SAMPLE_SIZE = 100
+
+    /** has the convert settings for the values and is used to learn the columns */
+    final MapFlattener mapFlattener
+
+    /** the number of rows to look at when learning the columns */
+    int sampleSize = DEFAULT_SAMPLE_SIZE
+
+    private String[] header
+    private Column[] columns
+
+    RowFlattener() {
+        this(new MapFlattener())
+    }
+
+    RowFlattener(MapFlattener mapFlattener) {
+        this.mapFlattener = mapFlattener
+    }
+
+    /**
+     * RowFlattener with the columns set
+     */
+    static RowFlattener of(Collection<String> columns) {
+        return new RowFlattener().columns(columns)
+    }
+
+    /**
+     * RowFlattener with the columns from the MetaEntity.flattenProps()
+     */
+    static RowFlattener of(MetaEntity metaEntity) {
+        return of(metaEntity.flattenProps())
+    }
+
+    /**
+     * sets the columns in the dot path notation such as ['id', 'customer.name', 'tags.0']
+     */
+    RowFlattener columns(Collection<String> columnKeys) {
+        header = columnKeys as String[]
+        columns = new Column[header.length]
+        for (int i = 0; i < header.length; i++) {
+            columns[i] = new Column(header[i])
+        }
+        return this
+    }
+
+    RowFlattener sampleSize(int sampleSize) {
+        this.sampleSize = sampleSize
+        return this
+    }
+
+    /** see MapFlattener.convertObjectToString */
+    RowFlattener convertObjectToString(boolean val) {
+        mapFlattener.convertObjectToString(val)
+        return this
+    }
+
+    /** see MapFlattener.convertEmptyStringsToNull */
+    RowFlattener convertEmptyStringsToNull(boolean val) {
+        mapFlattener.convertEmptyStringsToNull(val)
+        return this
+    }
+
+    /**
+     * the column keys, null if they have not been set or learned yet
+     */
+    String[] getHeader() {
+        return header
+    }
+
+    boolean hasColumns() {
+        return columns != null
+    }
+
+    /**
+     * Sets the columns to all the keys that MapFlattener gives for the rows, in the order they were first seen.
+     */
+    RowFlattener learnColumns(Collection<? extends Map> rows) {
+        Set<String> keys = new LinkedHashSet<String>()
+        for (Map row : rows) {
+            keys.addAll(mapFlattener.flatten(row).keySet())
+        }
+        return columns(keys)
+    }
+
+    /**
+     * the values for the row lined up with the header
+     */
+    Object[] flattenRow(Object row) {
+        if (columns == null) throw new IllegalStateException("columns have not been set or learned")
+        Object[] values = new Object[columns.length]
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i].getValue(row, mapFlattener)
+        }
+        return values
+    }
+
+    /**
+     * Lazily flattens the rows. If the columns are not set then the first sampleSize rows are read
+     * to learn them before this returns, those rows are then the first ones out of the iterator.
+     */
+    Iterator<Object[]> flatten(Iterator<? extends Map> rows) {
+        Iterator<? extends Map> sampled = null
+        if (columns == null) {
+            List<Map> sample = new ArrayList<Map>(sampleSize)
+            while (sample.size() < sampleSize && rows.hasNext()) {
+                sample.add(rows.next())
+            }
+            learnColumns(sample)
+            sampled = sample.iterator()
+        }
+        return new RowIterator(this, sampled, rows)
+    }
+
+    @CompileStatic
+    static class RowIterator implements Iterator<Object[]> {
+        private final RowFlattener rowFlattener
+        private final Iterator<? extends Map> sampled
+        private final Iterator<? extends Map> rows
+
+        RowIterator(RowFlattener rowFlattener, Iterator<? extends Map> sampled, Iterator<? extends Map> rows) {
+            this.rowFlattener = rowFlattener
+            this.sampled = sampled
+            this.rows = rows
+        }
+
+        @Override
+        boolean hasNext() {
+            return (sampled != null && sampled.hasNext()) || rows.hasNext()
+        }
+
+        @Override
+        Object[] next() {
+            Map row = (sampled != null && sampled.hasNext()) ? sampled.next() : rows.next()
+            return rowFlattener.flattenRow(row)
+        }
+    }
+
+    /**
+     * A compiled column path, the segments are split and the list indexes parsed up front.
+     */
+    @CompileStatic
+    static class Column {
+        final String key
+        final String[] names
+        //the list index for the name or -1 if its not a number
+        final int[] indexes
+        final boolean idKey
+
+        Column(String key) {
+            this.key = key
+            names = key.tokenize('.') as String[]
+            indexes = new int[names.length]
+            for (int i = 0; i < names.length; i++) {
+                indexes[i] = names[i].isInteger() ? names[i].toInteger() : -1
+            }
+            idKey = key.endsWith('.id')
+        }
+
+        /**
+         * reads the value for the column from the row and converts it the same as the MapFlattener would.
+         * null when its not in the row.
+         */
+        Object getValue(Object row, MapFlattener mapFlattener) {
+            Object parent = null
+            Object value = row
+            boolean listItem = false
+            for (int i = 0; i < names.length; i++) {
+                if (value == null) return null
+                parent = value
+                if (value instanceof Map) {
+                    value = ((Map) value).get(names[i])
+                    listItem = false
+                } else if (value instanceof List && indexes[i] >= 0) {
+                    List list = (List) value
+                    value = indexes[i] < list.size() ? list.get(indexes[i]) : null
+                    listItem = true
+                } else {
+                    value = PropertyPath.getterFor(value.getClass(), names[i]).get(value)
+                    listItem = false
+                }
+            }
+            //nested maps are flattened into their own columns, and empty lists are left out by the MapFlattener
+            if (value instanceof Map) return null
+            if (value instanceof List) return ((List) value).isEmpty() ? null : value
+            if (listItem) return value == null ? null : String.valueOf(value)
+            //the 'null' for the ids is only put when the key is there
+            if (value == null && idKey && parent instanceof Map && !((Map) parent).containsKey(names[names.length - 1])) {
+                return null
+            }
+            return mapFlattener.flatValue(value, idKey)
+        }
+    }
+}
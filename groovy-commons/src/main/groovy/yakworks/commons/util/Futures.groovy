@@ -0,0 +1,31 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.commons.util
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+
+import groovy.transform.CompileStatic
+
+/**
+ * Helpers for CompletableFuture.
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class Futures {
+
+    /**
+     * Waits for the future and returns its result. If it failed then the cause is thrown
+     * instead of the CompletionException that join wraps it in.
+     */
+    static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join()
+        } catch (CompletionException e) {
+            throw e.cause ?: e
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import groovy.json.JsonGenerator
+import groovy.transform.CompileStatic
+
+/**
+ * Hook for the EnhancedJsonGenerator that gets called each time a converter is used for a value.
+ * Called on the hot path for every converted value so implementations should be fast and thread safe.
+ *
+ * @see ConverterMetrics
+ * @since 3.20
+ */
+@CompileStatic
+interface ConverterListener {
+
+    /**
+     * @param converter the converter that will convert the value
+     * @param type the class of the value
+     */
+    void onConvert(JsonGenerator.Converter converter, Class<?> type)
+}
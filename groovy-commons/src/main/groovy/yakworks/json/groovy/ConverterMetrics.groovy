@@ -0,0 +1,58 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAdder
+
+import groovy.json.JsonGenerator
+import groovy.transform.CompileStatic
+
+/**
+ * ConverterListener that counts how many times each converter fires, keyed by the converter class name.
+ *
+ * Example:
+ *   def metrics = new ConverterMetrics()
+ *   ((EnhancedJsonGenerator)JsonEngine.generator).converterListener = metrics
+ *   ...
+ *   metrics.counts //[yakworks.json.groovy.converters.LocalDateJsonConverter: 10]
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class ConverterMetrics implements ConverterListener {
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<String, LongAdder>()
+
+    @Override
+    void onConvert(JsonGenerator.Converter converter, Class<?> type) {
+        String name = converter.getClass().name
+        LongAdder counter = counters.get(name)
+        if(counter == null) counter = counters.computeIfAbsent(name, { new LongAdder() })
+        counter.increment()
+    }
+
+    /**
+     * the count for the converter class
+     */
+    long getCount(Class converterClass) {
+        return counters.get(converterClass.name)?.sum() ?: 0L
+    }
+
+    /**
+     * snapshot of the counts keyed by the converter class name
+     */
+    Map<String, Long> getCounts() {
+        Map<String, Long> counts = new TreeMap<String, Long>()
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            counts.put(entry.key, entry.value.sum())
+        }
+        return counts
+    }
+
+    void reset() {
+        counters.clear()
+    }
+}
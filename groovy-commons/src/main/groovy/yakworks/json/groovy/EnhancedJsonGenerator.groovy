@@ -4,22 +4,257 @@
 */
 package yakworks.json.groovy
 
+import java.lang.reflect.Method
+
 import groovy.json.DefaultJsonGenerator
+import groovy.json.JsonGenerator
+import groovy.json.JsonOutput
 import groovy.transform.CompileStatic
 
+import org.apache.groovy.json.internal.CharBuf
+
+import yakworks.commons.beans.PropertyGetters
+import yakworks.meta.MetaEntity
+import yakworks.meta.MetaEntityAccessor
+import yakworks.meta.MetaMap
+import yakworks.meta.MetaMapList
 import yakworks.meta.MetaUtils
 
 @CompileStatic
 class EnhancedJsonGenerator extends DefaultJsonGenerator {
+    //same as the package private ones in JsonOutput
+    private static final char OPEN_BRACKET = '[' as char
+    private static final char CLOSE_BRACKET = ']' as char
+    private static final char OPEN_BRACE = '{' as char
+    private static final char CLOSE_BRACE = '}' as char
+    private static final char COMMA = ',' as char
+    private static final char[] EMPTY_MAP_CHARS = ['{' as char, '}' as char] as char[]
+    private static final char[] EMPTY_LIST_CHARS = ['[' as char, ']' as char] as char[]
+
+    /**
+     * The resolved converter and whether its a plain object for each value class so its only worked out once per class.
+     * Converters handles() is by class so the result for a class does not change.
+     * The property getters are not kept here, they come from MetaUtils.getPropertyGetters which rebuilds them when the metaClass changes.
+     */
+    private final ClassValue<TypeInfo> typeInfoCache = new ClassValue<TypeInfo>() {
+        @Override
+        protected TypeInfo computeValue(Class<?> type) {
+            return buildTypeInfo(type)
+        }
+    }
+
+    /** optional hook that gets called when a converter fires, see ConverterMetrics */
+    volatile ConverterListener converterListener
+
+    /**
+     * false when a subclass overrides getObjectProperties, then the plain objects go through it
+     * instead of being written with the MetaUtils.getPropertyGetters.
+     */
+    protected final boolean usePropertyGetters
 
     protected EnhancedJsonGenerator(Options options) {
         super(options)
+        usePropertyGetters = !overridesGetObjectProperties(getClass())
+    }
+
+    /**
+     * true if a class between the type and this one declares its own getObjectProperties(Object)
+     */
+    protected static boolean overridesGetObjectProperties(Class<?> type) {
+        for (Class<?> c = type; c != null && c != EnhancedJsonGenerator; c = c.superclass) {
+            for (Method m : c.declaredMethods) {
+                if (m.name == 'getObjectProperties' && m.parameterCount == 1 && m.parameterTypes[0] == Object) return true
+            }
+        }
+        return false
+    }
+
+    /**
+     * true when the null values are left out, the Options excludeNulls
+     */
+    boolean isExcludingNulls() {
+        return excludeNulls
+    }
+
+    /**
+     * Writes the json for the object into the buffer, same as toJson but for when the caller manages the buffer,
+     * such as when streaming.
+     */
+    void writeValue(Object object, CharBuf buffer) {
+        writeObject(object, buffer)
+    }
+
+    /**
+     * Overriden to use the typeInfoCache instead of scanning the converters for each value
+     */
+    @Override
+    protected JsonGenerator.Converter findConverter(Class<?> type) {
+        if (converters.isEmpty()) return null
+        JsonGenerator.Converter converter = typeInfoCache.get(type).converter
+        ConverterListener listener = converterListener
+        if (converter != null && listener != null) listener.onConvert(converter, type)
+        return converter
+    }
+
+    /**
+     * the first converter that handles the type or null, same as the DefaultJsonGenerator.findConverter
+     */
+    protected JsonGenerator.Converter scanConverters(Class<?> type) {
+        for (JsonGenerator.Converter c : converters) {
+            if (c.handles(type)) return c
+        }
+        return null
+    }
+
+    protected TypeInfo buildTypeInfo(Class<?> type) {
+        JsonGenerator.Converter converter = scanConverters(type)
+        return new TypeInfo(converter, usePropertyGetters && converter == null && isObjectType(type))
+    }
+
+    /**
+     * true if the type is one that DefaultJsonGenerator.writeObject writes with the getObjectProperties,
+     * its not one of the types it has special handling for.
+     */
+    protected static boolean isObjectType(Class<?> type) {
+        return !(CharSequence.isAssignableFrom(type) || Boolean == type || Number.isAssignableFrom(type) ||
+            Date.isAssignableFrom(type) || Calendar.isAssignableFrom(type) || Map.isAssignableFrom(type) ||
+            Iterable.isAssignableFrom(type) || Iterator.isAssignableFrom(type) || Character == type ||
+            URL == type || UUID == type || JsonOutput.JsonUnescaped == type || Closure.isAssignableFrom(type) ||
+            Expando.isAssignableFrom(type) || Enumeration.isAssignableFrom(type) || type.isArray() ||
+            Enum.isAssignableFrom(type) || File.isAssignableFrom(type))
     }
 
     /**
-     * Overriden to filter out statics
+     * Overriden to filter out statics.
+     * The plain objects are written with writeObjectProperties and the cached getters for the same props,
+     * unless a subclass overrides this, then its used for them like in the DefaultJsonGenerator.
      */
     protected Map<?, ?> getObjectProperties(Object object) {
         return MetaUtils.getProperties(object)
     }
+
+    /**
+     * Overriden so a MetaMapList that has not been hydrated is written straight from the
+     * MetaEntity and its resultList, without wrapping each row in a MetaMap.
+     */
+    @Override
+    protected void writeObject(String key, Object object, CharBuf buffer) {
+        if(object instanceof MetaMapList && ((MetaMapList)object).metaEntity != null) {
+            MetaMapList mlist = (MetaMapList)object
+            writeMetaIterator(mlist.getListToUse().iterator(), mlist.metaEntity, buffer)
+            return
+        }
+        if(object != null && typeInfoCache.get(object.getClass()).plainObject) {
+            if (isExcludingValues(object)) return
+            writeObjectProperties(object, MetaUtils.getPropertyGetters(object.getClass()), buffer)
+            return
+        }
+        super.writeObject(key, object, buffer)
+    }
+
+    /**
+     * Writes the object properties with the prebuilt getters, straight to the buffer
+     * instead of building a Map with getObjectProperties and writing that.
+     */
+    protected void writeObjectProperties(Object object, PropertyGetters getters, CharBuf buffer) {
+        String[] names = getters.names
+        if (names.length == 0) {
+            buffer.addChars(EMPTY_MAP_CHARS)
+            return
+        }
+        buffer.addChar(OPEN_BRACE)
+        for (int i = 0; i < names.length; i++) {
+            String key = names[i]
+            Object val = getters.getValue(object, i)
+            if (isExcludingValues(val) || isExcludingFieldsNamed(key)) continue
+            writeMapEntry(key, val, buffer)
+            buffer.addChar(COMMA)
+        }
+        buffer.removeLastChar(COMMA) // dropping trailing comma
+        buffer.addChar(CLOSE_BRACE)
+    }
+
+    /**
+     * Writes the object as json, reading the props from the MetaEntity.
+     * Produces the same json as writing a new MetaMap(source, metaEntity) would, with out creating the MetaMap and its entries.
+     *
+     * @param source the entity object or map to read the props from
+     * @param metaEntity the MetaEntity with the props to write
+     * @param buffer the buffer to write to
+     */
+    void writeMetaEntity(Object source, MetaEntity metaEntity, CharBuf buffer) {
+        //already a MetaMap, such as one that was hydrated, so let it do its thing
+        if(source instanceof MetaMap) {
+            writeObject(source, buffer)
+            return
+        }
+        MetaEntityAccessor accessor = metaEntity.accessorFor(source.getClass())
+        String[] names = accessor.names
+        if (names.length == 0) {
+            buffer.addChars(EMPTY_MAP_CHARS)
+            return
+        }
+        buffer.addChar(OPEN_BRACE)
+        for (int i = 0; i < names.length; i++) {
+            String key = names[i]
+            if (isExcludingFieldsNamed(key)) continue
+            Object val = accessor.getValue(source, i)
+            MetaEntity nested = accessor.nestedEntities[i]
+
+            if(val != null && MetaMap.isNestedValue(val, nested)) {
+                buffer.addJsonFieldName(key, disableUnicodeEscaping)
+                if(val instanceof Iterable) {
+                    writeMetaIterator(((Iterable)val).iterator(), nested, buffer)
+                } else {
+                    writeMetaEntity(val, nested, buffer)
+                }
+            } else {
+                if(val != null) val = MetaMap.convertBasicValue(val, key)
+                if (isExcludingValues(val)) continue
+                writeMapEntry(key, val, buffer)
+            }
+            buffer.addChar(COMMA)
+        }
+        buffer.removeLastChar(COMMA) // dropping trailing comma
+        buffer.addChar(CLOSE_BRACE)
+    }
+
+    /**
+     * Writes the items as a json array, each one written with writeMetaEntity
+     */
+    void writeMetaIterator(Iterator<?> iterator, MetaEntity metaEntity, CharBuf buffer) {
+        if (!iterator.hasNext()) {
+            buffer.addChars(EMPTY_LIST_CHARS)
+            return
+        }
+        buffer.addChar(OPEN_BRACKET)
+        while (iterator.hasNext()) {
+            Object it = iterator.next()
+            if (it == null) {
+                if (isExcludingValues(it)) continue
+                buffer.addNull()
+            } else {
+                writeMetaEntity(it, metaEntity, buffer)
+            }
+            buffer.addChar(COMMA)
+        }
+        buffer.removeLastChar(COMMA) // dropping trailing comma
+        buffer.addChar(CLOSE_BRACKET)
+    }
+
+    /**
+     * the cached info for a value class
+     */
+    @CompileStatic
+    static class TypeInfo {
+        /** the converter for the class or null */
+        final JsonGenerator.Converter converter
+        /** true when its a plain object thats written with writeObjectProperties */
+        final boolean plainObject
+
+        TypeInfo(JsonGenerator.Converter converter, boolean plainObject) {
+            this.converter = converter
+            this.plainObject = plainObject
+        }
+    }
 }
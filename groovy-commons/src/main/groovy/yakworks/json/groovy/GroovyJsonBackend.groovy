@@ -0,0 +1,132 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import java.nio.ByteBuffer
+import java.nio.CharBuffer
+import java.nio.charset.CharsetEncoder
+import java.nio.charset.CoderResult
+import java.nio.charset.CodingErrorAction
+import java.nio.charset.StandardCharsets
+import java.util.function.Supplier
+
+import groovy.json.JsonGenerator
+import groovy.json.JsonSlurper
+import groovy.transform.CompileStatic
+
+import org.apache.groovy.json.internal.CharBuf
+
+/**
+ * The default JsonBackend using the JsonEngine's groovy JsonGenerator and JsonSlurper.
+ * The writeTo and toBytes generate into a CharBuf thats kept per thread and encode it to UTF-8 in small blocks
+ * with a per thread encoder and byte buffer, so there is no String or full size byte copy made along the way.
+ * Char buffers that grew over MAX_RETAINED_CHARS for a big response are dropped after so threads dont hold onto them.
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class GroovyJsonBackend implements JsonBackend {
+
+    static final String NAME = 'groovy'
+
+    /** the biggest char buffer to keep for a thread */
+    static final int MAX_RETAINED_CHARS = 256 * 1024
+
+    static final ThreadLocal<CharBuf> CHAR_BUFFER = ThreadLocal.withInitial({
+        CharBuf.create(8192)
+    } as Supplier<CharBuf>)
+
+    static final ThreadLocal<CharsetEncoder> UTF8_ENCODER = ThreadLocal.withInitial({
+        //replace bad surrogates like String.getBytes does
+        StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE)
+    } as Supplier<CharsetEncoder>)
+
+    static final ThreadLocal<ByteBuffer> BYTE_BUFFER = ThreadLocal.withInitial({
+        ByteBuffer.allocate(8192)
+    } as Supplier<ByteBuffer>)
+
+    final JsonGenerator generator
+    final JsonSlurper slurper
+
+    GroovyJsonBackend(JsonGenerator generator, JsonSlurper slurper) {
+        this.generator = generator
+        this.slurper = slurper
+    }
+
+    @Override
+    String getName() {
+        return NAME
+    }
+
+    @Override
+    String toJson(Object object) {
+        return generator.toJson(object)
+    }
+
+    @Override
+    void writeTo(Object object, OutputStream out) {
+        CharBuf buffer = CHAR_BUFFER.get()
+        //taken off the thread in case a converter calls back in
+        CHAR_BUFFER.remove()
+        writeJson(object, buffer)
+        int len = buffer.len()
+        char[] chars = buffer.readForRecycle()
+        encodeUtf8(chars, len, out)
+        out.flush()
+        if (chars.length <= MAX_RETAINED_CHARS) CHAR_BUFFER.set(buffer)
+    }
+
+    @Override
+    byte[] toBytes(Object object) {
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream(1024)
+        writeTo(object, bytesOut)
+        return bytesOut.toByteArray()
+    }
+
+    /**
+     * generates the json into the buffer
+     */
+    protected void writeJson(Object object, CharBuf buffer) {
+        if (object == null) {
+            buffer.addNull()
+        } else if (generator instanceof EnhancedJsonGenerator) {
+            ((EnhancedJsonGenerator)generator).writeValue(object, buffer)
+        } else {
+            buffer.add(generator.toJson(object))
+        }
+    }
+
+    /**
+     * encodes the chars to UTF-8 bytes a block at a time using the thread's encoder and byte buffer
+     */
+    static void encodeUtf8(char[] chars, int len, OutputStream out) {
+        CharsetEncoder encoder = UTF8_ENCODER.get()
+        encoder.reset()
+        ByteBuffer bytes = BYTE_BUFFER.get()
+        bytes.clear()
+        CharBuffer input = CharBuffer.wrap(chars, 0, len)
+        CoderResult result = CoderResult.OVERFLOW
+        while (result.isOverflow()) {
+            result = encoder.encode(input, bytes, true)
+            writeAndClear(bytes, out)
+        }
+        while (encoder.flush(bytes).isOverflow()) {
+            writeAndClear(bytes, out)
+        }
+        writeAndClear(bytes, out)
+    }
+
+    protected static void writeAndClear(ByteBuffer bytes, OutputStream out) {
+        if (bytes.position() > 0) out.write(bytes.array(), 0, bytes.position())
+        bytes.clear()
+    }
+
+    @Override
+    Object parseJson(String text) {
+        return slurper.parseText(text)
+    }
+}
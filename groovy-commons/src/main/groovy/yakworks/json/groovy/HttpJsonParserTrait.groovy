@@ -9,7 +9,8 @@ import javax.servlet.http.HttpServletRequest
 import groovy.transform.CompileStatic
 
 /**
- * Trait to adds parse methods for using JsonSlurper to parse HttpServletRequest body
+ * Trait to adds parse methods for using JsonSlurper to parse HttpServletRequest body.
+ * The parser is picked by the body size, see JsonBodyParser.
  *
  * @author Joshua Burnett
  * @since 7.0.8
@@ -35,12 +36,19 @@ trait HttpJsonParserTrait extends JsonEngineTrait{
     }
 
     /**
-     * Parse a JSON Map data structure from request body input stream.
+     * Parse a JSON Map data structure from request body input stream with the getJsonSlurper settings.
      * if no content then returns an empty map
      */
     Object parseJson(HttpServletRequest req) {
-        boolean hasContent = req.contentLength
-        return hasContent ? getJsonSlurper().parse(req.inputStream) : Collections.emptyMap()
+        return getJsonBodyParser().parse(req, getJsonSlurper())
+    }
+
+    /**
+     * the JsonBodyParser to parse the request body with, the read only JsonBodyParser.getDefault().
+     * Override to return a shared one with different settings, such as a maxBodySize.
+     */
+    JsonBodyParser getJsonBodyParser() {
+        return JsonBodyParser.getDefault()
     }
 
 }
@@ -0,0 +1,33 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import groovy.transform.CompileStatic
+
+/**
+ * The implementation that the JsonEngine static toJson and parseJson use.
+ * GroovyJsonBackend is the default, JacksonJsonBackend is the jackson one that gives the same output.
+ * Pick with JsonEngine.backend or the yakworks.json.backend system property, "groovy" or "jackson".
+ *
+ * @since 3.20
+ */
+@CompileStatic
+interface JsonBackend {
+
+    /** the name used to pick the backend in the config */
+    String getName()
+
+    /** the object as a json string */
+    String toJson(Object object)
+
+    /** writes the object as UTF-8 json to the stream, flushes but does not close it */
+    void writeTo(Object object, OutputStream out)
+
+    /** the object as UTF-8 json bytes */
+    byte[] toBytes(Object object)
+
+    /** parse the json text to maps, lists and values */
+    Object parseJson(String text)
+}
@@ -0,0 +1,219 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import java.nio.charset.StandardCharsets
+import javax.servlet.http.HttpServletRequest
+
+import groovy.json.JsonParserType
+import groovy.json.JsonSlurper
+import groovy.transform.CompileStatic
+import groovy.transform.builder.Builder
+import groovy.transform.builder.SimpleStrategy
+
+import org.apache.commons.io.IOUtils
+
+/**
+ * Parses the json body of an HttpServletRequest, picking the parser by the size of the body.
+ *
+ * - When the content length is known and at or under the streamingThreshold the body is read into a byte array
+ *   and parsed with the JsonSlurper passed in, the JsonEngine.slurper by default, so its parser settings apply.
+ *   smallParserType can be set to use a different parser, with the rest of the slurper's settings.
+ *   INDEX_OVERLAY is faster for small payloads but the maps it returns are lazy and cant be modified,
+ *   so only use it when the parsed data is only read.
+ * - Bigger bodies, or chunked ones where the length is not known, are parsed as they are read
+ *   with the largeParserType, CHARACTER_SOURCE by default, so the body is never buffered all at once.
+ *
+ * There is no size limit by default. When maxBodySize is set then bigger bodies are rejected with a
+ * JsonBodyTooLargeException before they are read when the content length is known, or once that many bytes
+ * have been read when its not.
+ * After each parse the JsonParseStats is set on the request as the STATS_ATTRIBUTE and passed to the listener when there is one.
+ *
+ * The getDefault one is shared and read only, its settings can't be changed. To use different settings
+ * create a new one and return it from the HttpJsonParserTrait.getJsonBodyParser, for example in a controller
+ *
+ *   static final JsonBodyParser BODY_PARSER = new JsonBodyParser().maxBodySize(50 * 1024 * 1024).listener(myMetricsListener)
+ *   JsonBodyParser getJsonBodyParser() { BODY_PARSER }
+ *
+ * Set up an instance before its shared, the settings are plain fields and changing them while its parsing is not thread safe.
+ *
+ * @since 3.20
+ */
+@Builder(builderStrategy= SimpleStrategy, prefix="")
+@CompileStatic
+class JsonBodyParser {
+
+    /** the request attribute name the JsonParseStats is stored under */
+    static final String STATS_ATTRIBUTE = JsonParseStats.name
+
+    /** bodies with a content length at or under this many bytes are read into a buffer and parsed with the smallParserType */
+    int streamingThreshold = 1024 * 1024
+
+    /** the max number of bytes allowed in the body, 0 or less for no limit, the default */
+    long maxBodySize = 0
+
+    /** the parser for the buffered small bodies, null to use the slurper's own type */
+    JsonParserType smallParserType
+
+    /** the parser for the streamed large bodies */
+    JsonParserType largeParserType = JsonParserType.CHARACTER_SOURCE
+
+    /** called with the stats after each parse */
+    JsonParseListener listener
+
+    @SuppressWarnings('UnusedPrivateField')
+    private static class Holder {
+        private static final JsonBodyParser INSTANCE = new ReadOnlyJsonBodyParser()
+    }
+
+    /**
+     * the shared instance with the default settings that the HttpJsonParserTrait uses.
+     * Its read only, the setters throw an UnsupportedOperationException.
+     */
+    static JsonBodyParser getDefault() {
+        return Holder.INSTANCE
+    }
+
+    /**
+     * Parse the json from the request body with the JsonEngine.slurper settings.
+     * If the content length is 0 then returns an empty map.
+     */
+    Object parse(HttpServletRequest req) {
+        return parse(req, JsonEngine.slurper)
+    }
+
+    /**
+     * Parse the json from the request body. If the content length is 0 then returns an empty map.
+     *
+     * @param req the request
+     * @param slurper the slurper to use for the small bodies, and the settings for the large ones
+     */
+    Object parse(HttpServletRequest req, JsonSlurper slurper) {
+        long contentLength = req.contentLengthLong
+        if (contentLength == 0) return Collections.emptyMap()
+        if (maxBodySize > 0 && contentLength > maxBodySize) {
+            throw new JsonBodyTooLargeException(contentLength, maxBodySize)
+        }
+        String charset = req.characterEncoding ?: StandardCharsets.UTF_8.name()
+        long start = System.nanoTime()
+        Object parsed
+        JsonParseStats stats
+        if (contentLength > 0 && contentLength <= streamingThreshold) {
+            byte[] body = new byte[(int)contentLength]
+            IOUtils.readFully(req.inputStream, body)
+            JsonSlurper smallSlurper = smallParserType ? withType(slurper, smallParserType) : slurper
+            parsed = smallSlurper.parse(body, charset)
+            stats = new JsonParseStats(contentLength, smallSlurper.type, false, System.nanoTime() - start)
+        } else {
+            SizeLimitInputStream body = new SizeLimitInputStream(req.inputStream, maxBodySize)
+            try {
+                parsed = withType(slurper, largeParserType).parse(body, charset)
+            } catch (RuntimeException e) {
+                //the parsers wrap the errors from the reader so throw the size error if thats what it was
+                if (e instanceof JsonBodyTooLargeException) throw e
+                if (body.overLimit) throw new JsonBodyTooLargeException(body.count, maxBodySize, e)
+                throw e
+            }
+            stats = new JsonParseStats(body.count, largeParserType, true, System.nanoTime() - start)
+        }
+        req.setAttribute(STATS_ATTRIBUTE, stats)
+        listener?.onParse(req, stats)
+        return parsed
+    }
+
+    /**
+     * the slurper if its already the parser type, otherwise a new one for the type with the slurper's other settings.
+     * slurpers create a new parser for each parse so this is cheap
+     */
+    protected JsonSlurper withType(JsonSlurper slurper, JsonParserType parserType) {
+        if (slurper.type == parserType) return slurper
+        return new JsonSlurper().setType(parserType)
+            .setChop(slurper.chop)
+            .setLazyChop(slurper.lazyChop)
+            .setCheckDates(slurper.checkDates)
+            .setMaxSizeForInMemory(slurper.maxSizeForInMemory)
+    }
+
+    /**
+     * the default settings that can't be changed, so the shared default does not leak settings between apps or tests
+     */
+    @CompileStatic
+    protected static class ReadOnlyJsonBodyParser extends JsonBodyParser {
+
+        @Override
+        JsonBodyParser streamingThreshold(int val) { throw readOnly() }
+
+        @Override
+        void setStreamingThreshold(int val) { throw readOnly() }
+
+        @Override
+        JsonBodyParser maxBodySize(long val) { throw readOnly() }
+
+        @Override
+        void setMaxBodySize(long val) { throw readOnly() }
+
+        @Override
+        JsonBodyParser smallParserType(JsonParserType val) { throw readOnly() }
+
+        @Override
+        void setSmallParserType(JsonParserType val) { throw readOnly() }
+
+        @Override
+        JsonBodyParser largeParserType(JsonParserType val) { throw readOnly() }
+
+        @Override
+        void setLargeParserType(JsonParserType val) { throw readOnly() }
+
+        @Override
+        JsonBodyParser listener(JsonParseListener val) { throw readOnly() }
+
+        @Override
+        void setListener(JsonParseListener val) { throw readOnly() }
+
+        protected static UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException(
+                "JsonBodyParser.getDefault() is read only, create a new JsonBodyParser and return it from getJsonBodyParser()")
+        }
+    }
+
+    /**
+     * counts the bytes read and throws once more than the maxSize have been read
+     */
+    @CompileStatic
+    protected static class SizeLimitInputStream extends FilterInputStream {
+        final long maxSize
+        long count = 0
+
+        SizeLimitInputStream(InputStream inputStream, long maxSize) {
+            super(inputStream)
+            this.maxSize = maxSize
+        }
+
+        @Override
+        int read() {
+            int b = super.read()
+            if (b != -1) addCount(1)
+            return b
+        }
+
+        @Override
+        int read(byte[] b, int off, int len) {
+            int n = super.read(b, off, len)
+            if (n > 0) addCount(n)
+            return n
+        }
+
+        boolean isOverLimit() {
+            return maxSize > 0 && count > maxSize
+        }
+
+        protected void addCount(long n) {
+            count += n
+            if (isOverLimit()) {
+                throw new JsonBodyTooLargeException(count, maxSize)
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import groovy.transform.CompileStatic
+
+/**
+ * Thrown by the JsonBodyParser when the request body is bigger than its maxBodySize,
+ * so it can be mapped to a 413 Payload Too Large.
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class JsonBodyTooLargeException extends IllegalArgumentException {
+
+    /** the max number of bytes allowed */
+    final long maxBodySize
+
+    /** the content length or the number of bytes read when the limit was hit */
+    final long bodySize
+
+    JsonBodyTooLargeException(long bodySize, long maxBodySize, Throwable cause = null) {
+        super("Request body of ${bodySize} bytes is more than the max of ${maxBodySize}".toString(), cause)
+        this.bodySize = bodySize
+        this.maxBodySize = maxBodySize
+    }
+}
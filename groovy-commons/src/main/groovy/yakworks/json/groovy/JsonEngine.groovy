@@ -5,6 +5,7 @@
 package yakworks.json.groovy
 
 import groovy.json.JsonGenerator
+import groovy.json.JsonParserType
 import groovy.json.JsonSlurper
 import groovy.transform.CompileStatic
 import groovy.transform.builder.Builder
@@ -20,6 +21,7 @@ import yakworks.json.groovy.converters.OffsetTimeJsonConverter
 import yakworks.json.groovy.converters.PeriodJsonConverter
 import yakworks.json.groovy.converters.URIConverter
 import yakworks.json.groovy.converters.ZonedDateTimeJsonConverter
+import yakworks.json.jackson.JacksonJsonBackend
 
 /**
  * Wrapper for groovy Json slurper and generator
@@ -39,8 +41,37 @@ class JsonEngine {
     Boolean escapeUnicode = false
     Boolean excludeNulls = true
 
+    /**
+     * The slurper's parser. CHAR_BUFFER is the default and returns regular maps.
+     * INDEX_OVERLAY is faster for small payloads but returns lazy maps that cant be modified,
+     * LAX allows comments and unquoted keys, CHARACTER_SOURCE is for huge inputs.
+     */
+    JsonParserType parserType = JsonParserType.CHAR_BUFFER
+
+    /** for INDEX_OVERLAY and LAX, copy the values out of the parsed buffer as they are parsed */
+    boolean chop = false
+
+    /** for INDEX_OVERLAY and LAX, copy the values out of the parsed buffer when they are first accessed */
+    boolean lazyChop = true
+
+    /** files bigger than this are parsed with CHARACTER_SOURCE instead of being read into memory */
+    int maxSizeForInMemory = 2000000
+
+    /** opt in to use a PooledJsonSlurper that reuses the parsers for each thread, off by default */
+    boolean pooledSlurper = false
+
+    /**
+     * the JsonBackend the static toJson, stringify and parseJson use, "groovy" or "jackson".
+     * Defaults to the yakworks.json.backend system property or groovy if its not set.
+     */
+    String backend = System.getProperty(BACKEND_PROPERTY, GroovyJsonBackend.NAME)
+
     JsonGenerator jsonGenerator
     JsonSlurper jsonSlurper
+    JsonBackend jsonBackend
+
+    /** the system property to set the default backend */
+    static final String BACKEND_PROPERTY = 'yakworks.json.backend'
 
     // JsonEngine(){ }
 
@@ -52,14 +83,7 @@ class JsonEngine {
         if (!escapeUnicode) {
             options.disableUnicodeEscaping()
         }
-        Locale loc
-        String[] localeData = locale.split('/')
-        if (localeData.length > 1) {
-            loc = new Locale(localeData[0], localeData[1])
-        } else {
-            loc = new Locale(localeData[0])
-        }
-        options.dateFormat(dateFormat, loc)
+        options.dateFormat(dateFormat, buildLocale())
         options.timezone(timeZone)
 
         if(excludeNulls) {
@@ -73,29 +97,51 @@ class JsonEngine {
         return options
     }
 
+    /**
+     * the Locale from the locale setting, language/country
+     */
+    Locale buildLocale() {
+        String[] localeData = locale.split('/')
+        if (localeData.length > 1) {
+            return new Locale(localeData[0], localeData[1])
+        }
+        return new Locale(localeData[0])
+    }
+
     JsonEngine build() {
         def opts = buildOptions()
         jsonGenerator = new EnhancedJsonGenerator(opts)
         // jsonGenerator = buildOptions().build()
 
         jsonSlurper = buildSlurper()
+        jsonBackend = buildBackend()
         return this
     }
 
+    /**
+     * the JsonBackend for the backend setting, call after the generator and slurper are built
+     */
+    JsonBackend buildBackend(){
+        switch (backend) {
+            case GroovyJsonBackend.NAME:
+                return new GroovyJsonBackend(jsonGenerator, jsonSlurper)
+            case JacksonJsonBackend.NAME:
+                return new JacksonJsonBackend(this)
+            default:
+                throw new IllegalArgumentException("Unknown json backend ${backend}, should be ${GroovyJsonBackend.NAME} or ${JacksonJsonBackend.NAME}")
+        }
+    }
+
     JsonSlurper buildSlurper(){
-        //TODO make this configurable
-        return new JsonSlurper() //.setType(JsonParserType.LAX).setLazyChop(false).setChop(true)
+        JsonSlurper slurper = pooledSlurper ? new PooledJsonSlurper() : new JsonSlurper()
+        return slurper.setType(parserType)
+            .setChop(chop)
+            .setLazyChop(lazyChop)
+            .setMaxSizeForInMemory(maxSizeForInMemory)
     }
 
     List<JsonGenerator.Converter> getConverters(){
-        ServiceLoader<JsonGenerator.Converter> loader = ServiceLoader.load(JsonGenerator.Converter);
-        List<JsonGenerator.Converter> converters = []
-        for (JsonGenerator.Converter converter : loader) {
-            converters.add(converter)
-        }
-        converters = converters.sort {
-            it.hasProperty('order') ? it['order'] : 0
-        }
+        List<JsonGenerator.Converter> converters = new ArrayList<JsonGenerator.Converter>(getServiceConverters())
 
         converters.add(new InstantJsonConverter())
         converters.add(new LocalDateJsonConverter())
@@ -111,18 +157,65 @@ class JsonEngine {
         return converters
     }
 
+    /**
+     * The converters from the ServiceLoader sorted by their order property.
+     * Loaded and sorted once and cached as each build() would otherwise do the lookups again.
+     */
+    static List<JsonGenerator.Converter> getServiceConverters(){
+        return ServiceConvertersHolder.CONVERTERS
+    }
+
+    /**
+     * the order property on the converter if it has one, otherwise 0
+     */
+    static int getConverterOrder(JsonGenerator.Converter converter){
+        MetaProperty orderProp = converter.metaClass.hasProperty(converter, 'order')
+        return orderProp ? (orderProp.getProperty(converter) as Integer) : 0
+    }
+
+    protected static List<JsonGenerator.Converter> loadServiceConverters(){
+        ServiceLoader<JsonGenerator.Converter> loader = ServiceLoader.load(JsonGenerator.Converter);
+        List<JsonGenerator.Converter> converters = []
+        for (JsonGenerator.Converter converter : loader) {
+            converters.add(converter)
+        }
+        //resolve the order once for each instead of in the compare
+        Map<JsonGenerator.Converter, Integer> orders = new IdentityHashMap<JsonGenerator.Converter, Integer>()
+        for (JsonGenerator.Converter converter : converters) {
+            orders.put(converter, getConverterOrder(converter))
+        }
+        return converters.sort { JsonGenerator.Converter c -> orders.get(c) }
+    }
+
     static String toJson(Object object, boolean excludeNulls = true){
         stringify(object, excludeNulls)
     }
 
     static String stringify(Object object, boolean excludeNulls = true){
         if(excludeNulls) {
-            getGenerator().toJson(object)
+            getInstance().jsonBackend.toJson(object)
         } else {
-            getInstanceIncludeNulls().jsonGenerator.toJson(object)
+            getInstanceIncludeNulls().jsonBackend.toJson(object)
         }
     }
 
+    /**
+     * Writes the object as UTF-8 json straight to the stream, with out making a String first.
+     * Flushes but does not close the stream.
+     */
+    static void writeTo(Object object, OutputStream out, boolean excludeNulls = true){
+        JsonEngine engine = excludeNulls ? getInstance() : getInstanceIncludeNulls()
+        engine.jsonBackend.writeTo(object, out)
+    }
+
+    /**
+     * the object as UTF-8 json bytes, for http responses and caches where the String would only get encoded after
+     */
+    static byte[] toBytes(Object object, boolean excludeNulls = true){
+        JsonEngine engine = excludeNulls ? getInstance() : getInstanceIncludeNulls()
+        return engine.jsonBackend.toBytes(object)
+    }
+
     // see good explanation of thread safe static instance stratgey https://stackoverflow.com/a/16106598/6500859
     @SuppressWarnings('UnusedPrivateField')
     private static class Holder {
@@ -130,6 +223,11 @@ class JsonEngine {
         private static final JsonEngine INSTANCE_INCLUDE_NULLS = new JsonEngine().excludeNulls(false).build()
     }
 
+    @SuppressWarnings('UnusedPrivateField')
+    private static class ServiceConvertersHolder {
+        private static final List<JsonGenerator.Converter> CONVERTERS = Collections.unmodifiableList(loadServiceConverters())
+    }
+
     static JsonEngine getInstance() {
         return Holder.INSTANCE
     }
@@ -154,7 +252,7 @@ class JsonEngine {
      * if no content then returns an empty map
      */
     static Object parseJson(String text) {
-        return getSlurper().parseText(text)
+        return getInstance().jsonBackend.parseJson(text)
     }
 
     /**
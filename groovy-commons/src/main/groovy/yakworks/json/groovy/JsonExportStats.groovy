@@ -0,0 +1,32 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import java.nio.file.Path
+
+import groovy.transform.CompileStatic
+import groovy.transform.ToString
+
+/**
+ * JsonStreamStats for a ParallelJsonExporter export, with the number of chunks and the part files when sharded.
+ *
+ * @since 3.20
+ */
+@ToString(includeNames = true, includeSuper = true, includes = ['chunks', 'files'])
+@CompileStatic
+class JsonExportStats extends JsonStreamStats {
+
+    /** the number of chunks the rows were split into */
+    final int chunks
+
+    /** the part files in order when exported with exportParts, empty otherwise */
+    final List<Path> files
+
+    JsonExportStats(long rows, long chars, long bytes, long elapsedMillis, int chunks, List<Path> files) {
+        super(rows, chars, bytes, elapsedMillis)
+        this.chunks = chunks
+        this.files = files
+    }
+}
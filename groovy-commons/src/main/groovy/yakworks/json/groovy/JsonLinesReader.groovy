@@ -0,0 +1,194 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
+import java.util.concurrent.Semaphore
+import java.util.concurrent.atomic.AtomicReference
+import java.util.function.Consumer
+import java.util.stream.Stream
+import java.util.stream.StreamSupport
+
+import groovy.json.JsonException
+import groovy.json.JsonSlurper
+import groovy.transform.CompileStatic
+
+import org.codehaus.groovy.runtime.DefaultGroovyMethodsSupport
+
+/**
+ * Lazy reader for newline delimited json (NDJSON / JSON Lines), one json value per line.
+ * Each line is only read and parsed when its asked for, so a multi GB file can be processed
+ * one record at a time without loading it. Blank lines are skipped.
+ * See JsonStreaming.writeLines for the writing side.
+ *
+ * Example:
+ *   JsonLinesReader.of(path).withCloseable { reader ->
+ *       for(Object row : reader) { ... }
+ *   }
+ *
+ * Or to fan the parsing and processing out to worker threads
+ *   JsonLinesReader.of(path).withCloseable { reader ->
+ *       reader.forEachParallel(executor, 4) { Map row -> ... }
+ *   }
+ *
+ * Not thread safe, the iterator should only be used by one thread.
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class JsonLinesReader implements Iterable<Object>, Closeable {
+
+    final BufferedReader reader
+
+    /** the slurper to parse each line with, defaults to JsonEngine.slurper */
+    JsonSlurper slurper
+
+    private long lineNumber = 0
+    private boolean iteratorCreated = false
+
+    JsonLinesReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader)reader : new BufferedReader(reader)
+    }
+
+    static JsonLinesReader of(Reader reader) {
+        return new JsonLinesReader(reader)
+    }
+
+    /** reads the stream as UTF-8 */
+    static JsonLinesReader of(InputStream inputStream) {
+        return new JsonLinesReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))
+    }
+
+    /** reads the file as UTF-8 */
+    static JsonLinesReader of(Path path) {
+        return new JsonLinesReader(Files.newBufferedReader(path, StandardCharsets.UTF_8))
+    }
+
+    JsonSlurper getSlurper() {
+        if(slurper == null) slurper = JsonEngine.slurper
+        return slurper
+    }
+
+    /**
+     * the number of the last line that was read
+     */
+    long getLineNumber() {
+        return lineNumber
+    }
+
+    /**
+     * reads the next line that is not blank, null when at the end
+     */
+    String readLine() {
+        String line
+        while ((line = reader.readLine()) != null) {
+            lineNumber++
+            if (line.trim()) return line
+        }
+        return null
+    }
+
+    /**
+     * parses the line, wrapping the error with the line number if it fails
+     */
+    Object parseLine(String line, long lineNum) {
+        try {
+            return getSlurper().parseText(line)
+        } catch (JsonException e) {
+            throw new JsonException("Invalid json on line ${lineNum}: ${e.message}", e)
+        }
+    }
+
+    /**
+     * Iterates over the parsed lines. Can only be iterated once as its reading from the reader.
+     */
+    @Override
+    Iterator<Object> iterator() {
+        if (iteratorCreated) throw new IllegalStateException("JsonLinesReader can only be iterated once")
+        iteratorCreated = true
+        return new Iterator<Object>() {
+            String nextLine = readLine()
+
+            @Override
+            boolean hasNext() {
+                return nextLine != null
+            }
+
+            @Override
+            Object next() {
+                if (nextLine == null) throw new NoSuchElementException()
+                Object parsed = parseLine(nextLine, lineNumber)
+                nextLine = readLine()
+                return parsed
+            }
+        }
+    }
+
+    /**
+     * the parsed lines as a sequential java Stream, closing the stream closes the reader.
+     */
+    Stream<Object> stream() {
+        Spliterator<Object> spliterator = Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL)
+        return StreamSupport.stream(spliterator, false).onClose({ close() } as Runnable)
+    }
+
+    /**
+     * Reads the lines on the calling thread and fans the parsing and the consumer out to the executor.
+     * At most maxInFlight lines are waiting or running at a time so a slow consumer will slow down the reading
+     * and memory stays bounded. The order the consumer gets called in is not the order of the lines.
+     * Stops reading on the first error and rethrows it after the running ones finish.
+     *
+     * @param executor the executor to run the parse and consumer on
+     * @param maxInFlight the max number of lines that can be queued or running at once, usually the number of threads
+     * @param consumer called with each parsed line, needs to be thread safe
+     * @return the number of lines processed
+     */
+    long forEachParallel(Executor executor, int maxInFlight, Consumer<Object> consumer) {
+        Semaphore permits = new Semaphore(maxInFlight)
+        AtomicReference<Throwable> failure = new AtomicReference<>()
+        long count = 0
+        String line
+        while (failure.get() == null && (line = readLine()) != null) {
+            permits.acquire()
+            final String lineToParse = line
+            final long lineNum = lineNumber
+            try {
+                CompletableFuture.runAsync({
+                    try {
+                        consumer.accept(parseLine(lineToParse, lineNum))
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e)
+                    } finally {
+                        permits.release()
+                    }
+                } as Runnable, executor)
+            } catch (RuntimeException e) {
+                //rejected by the executor
+                permits.release()
+                throw e
+            }
+            count++
+        }
+        //wait for the ones that are still running
+        permits.acquire(maxInFlight)
+        permits.release(maxInFlight)
+        Throwable ex = failure.get()
+        if (ex != null) {
+            if (ex instanceof RuntimeException) throw (RuntimeException)ex
+            if (ex instanceof Error) throw (Error)ex
+            throw new JsonException("Error processing json lines", ex)
+        }
+        return count
+    }
+
+    @Override
+    void close() {
+        DefaultGroovyMethodsSupport.closeWithWarning(reader)
+    }
+}
@@ -0,0 +1,25 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import javax.servlet.http.HttpServletRequest
+
+import groovy.transform.CompileStatic
+
+/**
+ * Hook for the JsonBodyParser that gets called after each request body is parsed.
+ * Called for every request so implementations should be fast and thread safe.
+ *
+ * @since 3.20
+ */
+@CompileStatic
+interface JsonParseListener {
+
+    /**
+     * @param req the request that was parsed
+     * @param stats the body size, parser and time it took
+     */
+    void onParse(HttpServletRequest req, JsonParseStats stats)
+}
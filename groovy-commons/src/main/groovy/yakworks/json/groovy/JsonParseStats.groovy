@@ -0,0 +1,42 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import groovy.json.JsonParserType
+import groovy.transform.CompileStatic
+import groovy.transform.ToString
+
+/**
+ * What was parsed by a JsonBodyParser for a request, for logging and tuning.
+ *
+ * @since 3.20
+ */
+@ToString(includeNames = true, includes = ['bodySize', 'parserType', 'streamed', 'elapsedNanos'])
+@CompileStatic
+class JsonParseStats {
+
+    /** the number of bytes read from the body */
+    final long bodySize
+
+    /** the parser type that was used */
+    final JsonParserType parserType
+
+    /** true if the body was parsed as it was read instead of read into a buffer first */
+    final boolean streamed
+
+    /** how long the read and parse took, parsing small bodies is usually well under a millisecond */
+    final long elapsedNanos
+
+    JsonParseStats(long bodySize, JsonParserType parserType, boolean streamed, long elapsedNanos) {
+        this.bodySize = bodySize
+        this.parserType = parserType
+        this.streamed = streamed
+        this.elapsedNanos = elapsedNanos
+    }
+
+    long getElapsedMillis() {
+        return Math.floorDiv(elapsedNanos, 1_000_000L)
+    }
+}
@@ -0,0 +1,59 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import groovy.transform.CompileStatic
+import groovy.transform.ToString
+
+/**
+ * What was written by a JsonStreaming write, for logging and metrics.
+ *
+ * @since 3.20
+ */
+@ToString(includeNames = true, includes = ['rows', 'chars', 'bytes', 'elapsedMillis'])
+@CompileStatic
+class JsonStreamStats {
+
+    /** the number of rows written */
+    final long rows
+
+    /** the number of chars written */
+    final long chars
+
+    /** the number of bytes written, only known when writing to an OutputStream or Path, otherwise -1 */
+    final long bytes
+
+    /** how long the write took */
+    final long elapsedMillis
+
+    JsonStreamStats(long rows, long chars, long bytes, long elapsedMillis) {
+        this.rows = rows
+        this.chars = chars
+        this.bytes = bytes
+        this.elapsedMillis = elapsedMillis
+    }
+
+    /**
+     * the rows written per second
+     */
+    long getRowsPerSecond() {
+        return elapsedMillis > 0 ? Math.floorDiv(rows * 1000L, elapsedMillis) : rows
+    }
+
+    /**
+     * the bytes written per second, -1 if the bytes are not known
+     */
+    long getBytesPerSecond() {
+        if(bytes < 0) return -1
+        return elapsedMillis > 0 ? Math.floorDiv(bytes * 1000L, elapsedMillis) : bytes
+    }
+
+    /**
+     * copy with the bytes set, used after the stream is flushed and the count is known
+     */
+    JsonStreamStats withBytes(long byteCount) {
+        return new JsonStreamStats(rows, chars, byteCount, elapsedMillis)
+    }
+}
@@ -4,17 +4,36 @@
 */
 package yakworks.json.groovy
 
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
 import java.nio.file.Path
+import java.util.function.Function
+import java.util.stream.Stream
 
-import groovy.json.StreamingJsonBuilder
+import groovy.json.JsonGenerator
 import groovy.transform.CompileStatic
 import groovy.transform.builder.Builder
 import groovy.transform.builder.SimpleStrategy
 
+import org.apache.commons.io.output.CloseShieldOutputStream
+import org.apache.commons.io.output.CountingOutputStream
+import org.apache.groovy.json.internal.CharBuf
 import org.codehaus.groovy.runtime.DefaultGroovyMethodsSupport
 
+import yakworks.commons.io.GzipCodec
+import yakworks.commons.io.StreamCodec
+
 /**
- * Simple streaming to file
+ * Streaming json arrays to a Writer, OutputStream or file.
+ * The rows are written straight into a reused char buffer that gets drained to the writer as it fills,
+ * so no String is built per row and the rows are pulled from the Iterator one at a time.
+ * Memory stays constant no matter how many rows, and since the writes block a slow consumer slows down the reads.
+ * Works with a cursor or scrollable result wrapped in an Iterator, a java Stream or a Spliterator.
+ * Set a codec to compress the OutputStream and file output as its written, so there is no need to zip it after.
+ *
+ * Example:
+ *   JsonStreamStats stats = new JsonStreaming().writeArray(cursorIterator, outputStream)
+ *   log.info("exported ${stats.rows} rows, ${stats.bytes} bytes")
  *
  * @author Joshua Burnett (@basejump)
  * @since 7.0.8
@@ -23,6 +42,30 @@ import org.codehaus.groovy.runtime.DefaultGroovyMethodsSupport
 @CompileStatic
 class JsonStreaming {
 
+    /** the generator to use, defaults to the JsonEngine.generator */
+    JsonGenerator generator
+
+    /** the number of chars to let build up in the buffer before draining it to the writer */
+    int bufferSize = 8192
+
+    /** when true puts a new line after the opening bracket and after each row, like the streamToFile has always done */
+    boolean lineBreaks = false
+
+    /** compresses the OutputStream and file output when set, see GzipCodec. Does not change the file name */
+    StreamCodec codec
+
+    JsonGenerator getGenerator() {
+        if(generator == null) generator = JsonEngine.generator
+        return generator
+    }
+
+    /**
+     * shortcut to set the codec to a default GzipCodec
+     */
+    JsonStreaming gzip() {
+        return codec(new GzipCodec())
+    }
+
     /**
      * Streams a collection of maps to file, flushes and closes writer when finished.
      * Its assumed the path passed has directories already, will throw error if not
@@ -31,24 +74,187 @@ class JsonStreaming {
      * @param filePath the file as a Path object
      */
     static void streamToFile(Collection payload, Path path){
-        def writer = path.newWriter()
-        def generator = JsonEngine.generator
-        // def sjb = new StreamingJsonBuilder(writer, generator)
-        writer.write('[\n')
-        int i = 0
-        int psize = payload.size() - 1
-        for (Object entry : payload) {
-            writer.write(generator.toJson(entry))
-            if(i < psize ) writer.write(',')
-            writer.write('\n')
-            //to avoid OOM error flush every 1000 just in case
-            if (i % 1000 == 0) {
-                writer.flush()
+        new JsonStreaming().lineBreaks(true).writeArray(payload.iterator(), path)
+    }
+
+    /**
+     * Writes the rows as a json array. Flushes but does not close the writer.
+     *
+     * @param rows the rows to write, pulled one at a time
+     * @param writer the writer to write to
+     * @return the stats, bytes will be -1 as its only chars that are known here
+     */
+    JsonStreamStats writeArray(Iterator rows, Writer writer) {
+        long start = System.currentTimeMillis()
+        CharBuf buffer = CharBuf.create(bufferSize)
+        long rowCount = 0
+        long chars = 0
+        buffer.addChar('[' as char)
+        if(lineBreaks) buffer.addChar('\n' as char)
+        while (rows.hasNext()) {
+            Object row = rows.next()
+            if (rowCount > 0) {
+                buffer.addChar(',' as char)
+                if(lineBreaks) buffer.addChar('\n' as char)
             }
-            i++
+            writeValue(row, buffer)
+            rowCount++
+            if (buffer.len() >= bufferSize) chars += drain(buffer, writer)
+        }
+        if(lineBreaks && rowCount > 0) buffer.addChar('\n' as char)
+        buffer.addChar(']' as char)
+        chars += drain(buffer, writer)
+        writer.flush()
+        return new JsonStreamStats(rowCount, chars, -1, System.currentTimeMillis() - start)
+    }
+
+    /**
+     * Writes the rows as a json array in UTF-8. Flushes but does not close the stream.
+     *
+     * @return the stats with the bytes written to the stream, the compressed size when there is a codec
+     */
+    JsonStreamStats writeArray(Iterator rows, OutputStream out) {
+        return writeToStream(out) { Writer writer -> writeArray(rows, writer) }
+    }
+
+    /**
+     * Writes the rows as a json array in UTF-8 to the file, creating or overwriting it. Closes the file when done.
+     * Its assumed the path passed has directories already, will throw error if not
+     */
+    JsonStreamStats writeArray(Iterator rows, Path path) {
+        OutputStream out = Files.newOutputStream(path)
+        try {
+            return writeArray(rows, out)
+        } finally {
+            DefaultGroovyMethodsSupport.closeWithWarning(out)
+        }
+    }
+
+    /** @see #writeArray(Iterator, Writer) */
+    JsonStreamStats writeArray(Iterable rows, Writer writer) {
+        return writeArray(rows.iterator(), writer)
+    }
+
+    /** @see #writeArray(Iterator, OutputStream) */
+    JsonStreamStats writeArray(Iterable rows, OutputStream out) {
+        return writeArray(rows.iterator(), out)
+    }
+
+    /** @see #writeArray(Iterator, Writer) */
+    JsonStreamStats writeArray(Stream rows, Writer writer) {
+        return writeArray(rows.iterator(), writer)
+    }
+
+    /** @see #writeArray(Iterator, OutputStream) */
+    JsonStreamStats writeArray(Stream rows, OutputStream out) {
+        return writeArray(rows.iterator(), out)
+    }
+
+    /** @see #writeArray(Iterator, Writer) */
+    JsonStreamStats writeArray(Spliterator rows, Writer writer) {
+        return writeArray(Spliterators.iterator(rows), writer)
+    }
+
+    /** @see #writeArray(Iterator, OutputStream) */
+    JsonStreamStats writeArray(Spliterator rows, OutputStream out) {
+        return writeArray(Spliterators.iterator(rows), out)
+    }
+
+    /**
+     * Writes the rows as newline delimited json (NDJSON / JSON Lines), one json value per line.
+     * Flushes but does not close the writer. See JsonLinesReader for reading them back.
+     *
+     * @return the stats, bytes will be -1 as its only chars that are known here
+     */
+    JsonStreamStats writeLines(Iterator rows, Writer writer) {
+        long start = System.currentTimeMillis()
+        CharBuf buffer = CharBuf.create(bufferSize)
+        long rowCount = 0
+        long chars = 0
+        while (rows.hasNext()) {
+            writeValue(rows.next(), buffer)
+            buffer.addChar('\n' as char)
+            rowCount++
+            if (buffer.len() >= bufferSize) chars += drain(buffer, writer)
+        }
+        chars += drain(buffer, writer)
+        writer.flush()
+        return new JsonStreamStats(rowCount, chars, -1, System.currentTimeMillis() - start)
+    }
+
+    /**
+     * Writes the rows as json lines in UTF-8. Flushes but does not close the stream.
+     * @see #writeLines(Iterator, Writer)
+     */
+    JsonStreamStats writeLines(Iterator rows, OutputStream out) {
+        return writeToStream(out) { Writer writer -> writeLines(rows, writer) }
+    }
+
+    /**
+     * Writes the rows as json lines in UTF-8 to the file, creating or overwriting it. Closes the file when done.
+     * @see #writeLines(Iterator, Writer)
+     */
+    JsonStreamStats writeLines(Iterator rows, Path path) {
+        OutputStream out = Files.newOutputStream(path)
+        try {
+            return writeLines(rows, out)
+        } finally {
+            DefaultGroovyMethodsSupport.closeWithWarning(out)
         }
-        writer.write(']')
-        flushAndClose(writer)
+    }
+
+    /** @see #writeLines(Iterator, Writer) */
+    JsonStreamStats writeLines(Iterable rows, Writer writer) {
+        return writeLines(rows.iterator(), writer)
+    }
+
+    /** @see #writeLines(Iterator, OutputStream) */
+    JsonStreamStats writeLines(Iterable rows, OutputStream out) {
+        return writeLines(rows.iterator(), out)
+    }
+
+    /**
+     * Sets up the UTF-8 writer for the stream, compressing with the codec when there is one, and calls the writeFn with it.
+     * The compressed data is finished when done, even if the writeFn fails, but the out stream is not closed.
+     * @return the stats from the writeFn with the bytes written to the out stream
+     */
+    protected JsonStreamStats writeToStream(OutputStream out, Function<Writer, JsonStreamStats> writeFn) {
+        CountingOutputStream countingOut = new CountingOutputStream(out)
+        OutputStream target = codec ? codec.compress(CloseShieldOutputStream.wrap(countingOut)) : countingOut
+        //the CharBuf does the buffering so no need for a BufferedWriter
+        Writer writer = new OutputStreamWriter(target, StandardCharsets.UTF_8)
+        JsonStreamStats stats
+        try {
+            stats = writeFn.apply(writer)
+        } finally {
+            //closing finishes the compressed data and releases the codec's Deflater, the shield keeps the out stream open
+            if (codec) writer.close()
+        }
+        return stats.withBytes(countingOut.byteCount)
+    }
+
+    /**
+     * writes the json for the value into the buffer
+     */
+    protected void writeValue(Object value, CharBuf buffer) {
+        JsonGenerator gen = getGenerator()
+        if (value == null) {
+            buffer.addNull()
+        } else if (gen instanceof EnhancedJsonGenerator) {
+            ((EnhancedJsonGenerator)gen).writeValue(value, buffer)
+        } else {
+            buffer.add(gen.toJson(value))
+        }
+    }
+
+    /**
+     * writes whats in the buffer to the writer and resets it so the char array gets reused
+     * @return the number of chars written
+     */
+    protected static int drain(CharBuf buffer, Writer writer) {
+        int len = buffer.len()
+        if (len > 0) writer.write(buffer.readForRecycle(), 0, len)
+        return len
     }
 
     /**
@@ -0,0 +1,107 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import java.nio.charset.StandardCharsets
+
+import groovy.transform.CompileStatic
+
+import org.apache.groovy.json.internal.CharBuf
+
+import yakworks.meta.MetaEntity
+
+/**
+ * Streams rows to json using a MetaEntity for the props, the same json a MetaMapList would give.
+ * Walks the MetaEntity for each row and writes straight into a reused buffer that gets drained to the Writer,
+ * so no MetaMap, map entries or String are created per row.
+ * Null rows are left out of the array when the generator excludes nulls, same as the generator does for the items in a list.
+ *
+ * Example:
+ *   MetaJsonWriter.of(metaEntity).writeArray(resultList, writer)
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class MetaJsonWriter {
+
+    final MetaEntity metaEntity
+
+    final EnhancedJsonGenerator generator
+
+    /** the number of chars to let build up in the buffer before draining it to the writer */
+    int bufferSize = 8192
+
+    MetaJsonWriter(MetaEntity metaEntity, EnhancedJsonGenerator generator) {
+        this.metaEntity = metaEntity
+        this.generator = generator
+    }
+
+    /**
+     * uses the default JsonEngine generator
+     */
+    static MetaJsonWriter of(MetaEntity metaEntity) {
+        return new MetaJsonWriter(metaEntity, (EnhancedJsonGenerator)JsonEngine.generator)
+    }
+
+    /**
+     * json for a single row
+     */
+    String toJson(Object row) {
+        CharBuf buffer = CharBuf.create(255)
+        writeRow(row, buffer)
+        return buffer.toString()
+    }
+
+    /**
+     * Writes the rows as a json array. Flushes but does not close the writer.
+     *
+     * @param rows the entities or maps, usually the result of a query
+     * @param writer the writer to write to
+     * @return the number of rows written, not counting the null rows that were left out
+     */
+    int writeArray(Iterable rows, Writer writer) {
+        boolean skipNulls = generator.excludingNulls
+        CharBuf buffer = CharBuf.create(bufferSize)
+        buffer.addChar('[' as char)
+        int count = 0
+        for (Object row : rows) {
+            if (row == null && skipNulls) continue
+            if (count > 0) buffer.addChar(',' as char)
+            writeRow(row, buffer)
+            count++
+            if (buffer.len() >= bufferSize) drain(buffer, writer)
+        }
+        buffer.addChar(']' as char)
+        drain(buffer, writer)
+        writer.flush()
+        return count
+    }
+
+    /**
+     * Writes the rows as a json array in UTF-8. Flushes but does not close the stream.
+     *
+     * @return the number of rows written
+     */
+    int writeArray(Iterable rows, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))
+        return writeArray(rows, writer)
+    }
+
+    protected void writeRow(Object row, CharBuf buffer) {
+        if (row == null) {
+            buffer.addNull()
+        } else {
+            generator.writeMetaEntity(row, metaEntity, buffer)
+        }
+    }
+
+    /**
+     * writes whats in the buffer to the writer and resets it so the char array gets reused
+     */
+    protected static void drain(CharBuf buffer, Writer writer) {
+        int len = buffer.len()
+        if (len > 0) writer.write(buffer.readForRecycle(), 0, len)
+    }
+}
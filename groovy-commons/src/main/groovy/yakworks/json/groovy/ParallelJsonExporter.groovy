@@ -0,0 +1,264 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import java.nio.ByteBuffer
+import java.nio.CharBuffer
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
+import java.util.concurrent.ForkJoinPool
+import java.util.function.Supplier
+
+import groovy.json.JsonGenerator
+import groovy.transform.CompileStatic
+import groovy.transform.builder.Builder
+import groovy.transform.builder.SimpleStrategy
+
+import org.apache.commons.io.output.CloseShieldOutputStream
+import org.apache.commons.io.output.CountingOutputStream
+import org.apache.groovy.json.internal.CharBuf
+import org.codehaus.groovy.runtime.DefaultGroovyMethodsSupport
+
+import yakworks.commons.io.StreamCodec
+import yakworks.commons.util.Futures
+
+/**
+ * Exports rows to json using multiple threads. The rows are pulled from the Iterator on the calling thread
+ * and split into chunks of chunkSize that get serialized on the executor.
+ *
+ * - exportArray writes a single json array, the chunks are serialized and UTF-8 encoded in parallel
+ *   and written in order by the calling thread.
+ * - exportParts writes each chunk to its own part file as a json array, named baseName-00000.json, baseName-00001.json, etc.
+ *
+ * At most maxInFlight chunks are held at once so memory stays bounded and a slow disk slows down the reads.
+ * Set a codec to compress the output, the part files get the codec's extension added, baseName-00000.json.gz for example.
+ * For the single array use a GzipCodec with parallel(true) so the compression is not done only on the calling thread.
+ *
+ * Example:
+ *   JsonExportStats stats = new ParallelJsonExporter().chunkSize(5000).exportArray(rows.iterator(), path)
+ *   log.info("exported ${stats.rows} rows at ${stats.rowsPerSecond} rows/sec")
+ *
+ * @since 3.20
+ */
+@Builder(builderStrategy= SimpleStrategy, prefix="")
+@CompileStatic
+class ParallelJsonExporter {
+
+    /** the generator to use, defaults to the JsonEngine.generator */
+    JsonGenerator generator
+
+    /** the number of rows in each chunk */
+    int chunkSize = 1000
+
+    /** the size for the char buffers */
+    int bufferSize = 8192
+
+    /** the executor to serialize the chunks on, defaults to the ForkJoinPool.commonPool */
+    Executor executor
+
+    /** the max number of chunks queued or running at a time, defaults to 2 times the number of processors */
+    int maxInFlight = 0
+
+    /** compresses the output when set, see GzipCodec */
+    StreamCodec codec
+
+    Executor getExecutor() {
+        return executor ?: ForkJoinPool.commonPool()
+    }
+
+    int getMaxInFlight() {
+        return maxInFlight > 0 ? maxInFlight : Math.max(2, Runtime.getRuntime().availableProcessors() * 2)
+    }
+
+    /**
+     * the JsonStreaming with the settings here, used to write the part files and the rows
+     */
+    JsonStreaming getJsonStreaming() {
+        return new JsonStreaming().generator(generator).bufferSize(bufferSize).codec(codec)
+    }
+
+    /**
+     * Writes the rows as a single json array in UTF-8, the chunks are serialized in parallel and written in order.
+     * Flushes but does not close the stream. When there is a codec the compressed data is finished and the bytes
+     * in the stats are the compressed size.
+     */
+    JsonExportStats exportArray(Iterator rows, OutputStream out) {
+        if (!codec) return writeArray(rows, out)
+        long start = System.currentTimeMillis()
+        CountingOutputStream countingOut = new CountingOutputStream(out)
+        //the shield keeps the out stream open when the compressed stream is closed to finish it
+        OutputStream compressed = codec.compress(CloseShieldOutputStream.wrap(countingOut))
+        JsonExportStats stats
+        try {
+            stats = writeArray(rows, compressed)
+        } finally {
+            //always finish it so the codec releases its Deflater, even when the write failed
+            compressed.close()
+        }
+        return new JsonExportStats(stats.rows, stats.chars, countingOut.byteCount, System.currentTimeMillis() - start, stats.chunks, [])
+    }
+
+    /**
+     * does the exportArray to the stream with out compression
+     */
+    protected JsonExportStats writeArray(Iterator rows, OutputStream out) {
+        long start = System.currentTimeMillis()
+        JsonStreaming streaming = getJsonStreaming()
+        int inFlight = getMaxInFlight()
+        Deque<CompletableFuture<EncodedChunk>> pending = new ArrayDeque<CompletableFuture<EncodedChunk>>()
+        long rowCount = 0
+        long chars = 0
+        long bytes = 0
+        int chunks = 0
+        int written = 0
+        try {
+            out.write('['.bytes)
+            while (rows.hasNext()) {
+                final List chunk = nextChunk(rows)
+                rowCount += chunk.size()
+                chunks++
+                pending.add(CompletableFuture.supplyAsync({ encodeChunk(streaming, chunk) } as Supplier<EncodedChunk>, getExecutor()))
+                if (pending.size() >= inFlight) {
+                    EncodedChunk encoded = Futures.await(pending.poll())
+                    //comma before every chunk but the first one
+                    writeChunk(encoded, out, written++ > 0)
+                    chars += encoded.chars
+                    bytes += encoded.bytes.remaining()
+                }
+            }
+            while (!pending.isEmpty()) {
+                EncodedChunk encoded = Futures.await(pending.poll())
+                writeChunk(encoded, out, written++ > 0)
+                chars += encoded.chars
+                bytes += encoded.bytes.remaining()
+            }
+        } finally {
+            //if it failed then dont leave them running
+            for (CompletableFuture future : pending) future.cancel(false)
+        }
+        out.write(']'.bytes)
+        out.flush()
+        //the brackets and the commas between the chunks
+        int separators = 2 + Math.max(0, written - 1)
+        chars += separators
+        bytes += separators
+        return new JsonExportStats(rowCount, chars, bytes, System.currentTimeMillis() - start, chunks, [])
+    }
+
+    /**
+     * Writes the rows as a single json array in UTF-8 to the file, creating or overwriting it. Closes the file when done.
+     * @see #exportArray(Iterator, OutputStream)
+     */
+    JsonExportStats exportArray(Iterator rows, Path path) {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), bufferSize)
+        try {
+            return exportArray(rows, out)
+        } finally {
+            DefaultGroovyMethodsSupport.closeWithWarning(out)
+        }
+    }
+
+    /**
+     * Writes each chunk to its own part file in the dir as a json array, the part files are written in parallel.
+     * The dir should already exist. When there is a codec each part is compressed and gets the codec's extension.
+     *
+     * @param rows the rows to export
+     * @param dir the directory to put the part files in
+     * @param baseName the file name prefix, the files will be baseName-00000.json, baseName-00001.json, etc.
+     * @return the stats with the part files in order
+     */
+    JsonExportStats exportParts(Iterator rows, Path dir, String baseName) {
+        long start = System.currentTimeMillis()
+        JsonStreaming streaming = getJsonStreaming()
+        int inFlight = getMaxInFlight()
+        Deque<CompletableFuture<JsonStreamStats>> pending = new ArrayDeque<CompletableFuture<JsonStreamStats>>()
+        List<Path> files = []
+        String extension = codec ? codec.extension : ''
+        long rowCount = 0
+        long chars = 0
+        long bytes = 0
+        try {
+            while (rows.hasNext()) {
+                final List chunk = nextChunk(rows)
+                final Path part = dir.resolve(partFileName(baseName, files.size()) + extension)
+                files.add(part)
+                pending.add(CompletableFuture.supplyAsync({ streaming.writeArray(chunk.iterator(), part) } as Supplier<JsonStreamStats>, getExecutor()))
+                if (pending.size() >= inFlight) {
+                    JsonStreamStats partStats = Futures.await(pending.poll())
+                    rowCount += partStats.rows
+                    chars += partStats.chars
+                    bytes += partStats.bytes
+                }
+            }
+            while (!pending.isEmpty()) {
+                JsonStreamStats partStats = Futures.await(pending.poll())
+                rowCount += partStats.rows
+                chars += partStats.chars
+                bytes += partStats.bytes
+            }
+        } finally {
+            for (CompletableFuture future : pending) future.cancel(false)
+        }
+        return new JsonExportStats(rowCount, chars, bytes, System.currentTimeMillis() - start, files.size(), files)
+    }
+
+    /**
+     * the file name for the part at the index
+     */
+    static String partFileName(String baseName, int index) {
+        return "${baseName}-${String.format('%05d', index)}.json".toString()
+    }
+
+    /**
+     * pulls the next chunkSize rows from the iterator
+     */
+    protected List nextChunk(Iterator rows) {
+        List chunk = new ArrayList(chunkSize)
+        while (chunk.size() < chunkSize && rows.hasNext()) {
+            chunk.add(rows.next())
+        }
+        return chunk
+    }
+
+    /**
+     * serializes the rows in the chunk, comma separated with out the brackets, and encodes to UTF-8
+     */
+    protected EncodedChunk encodeChunk(JsonStreaming streaming, List chunk) {
+        CharBuf buffer = CharBuf.create(bufferSize)
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) buffer.addChar(',' as char)
+            streaming.writeValue(chunk.get(i), buffer)
+        }
+        int len = buffer.len()
+        ByteBuffer encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap(buffer.readForRecycle(), 0, len))
+        return new EncodedChunk(encoded, len)
+    }
+
+    /**
+     * writes the encoded chunk, with a comma before it when its not the first
+     */
+    protected static void writeChunk(EncodedChunk encoded, OutputStream out, boolean addComma) {
+        if (addComma) out.write((int)(',' as char))
+        ByteBuffer bb = encoded.bytes
+        out.write(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining())
+    }
+
+    /**
+     * a serialized chunk
+     */
+    @CompileStatic
+    protected static class EncodedChunk {
+        final ByteBuffer bytes
+        final int chars
+
+        EncodedChunk(ByteBuffer bytes, int chars) {
+            this.bytes = bytes
+            this.chars = chars
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.groovy
+
+import java.nio.charset.StandardCharsets
+
+import groovy.json.JsonParser
+import groovy.json.JsonParserType
+import groovy.json.JsonSlurper
+import groovy.transform.CompileStatic
+
+import org.apache.commons.io.input.CountingInputStream
+import org.apache.groovy.json.internal.JsonFastParser
+import org.apache.groovy.json.internal.JsonParserCharArray
+import org.apache.groovy.json.internal.JsonParserLax
+import org.apache.groovy.json.internal.JsonParserUsingCharacterSource
+
+/**
+ * JsonSlurper that keeps a parser per thread so the parser and its read buffers get reused,
+ * instead of the JsonSlurper's new parser for every parse. Less allocation for services that parse lots of small payloads.
+ *
+ * Parsers are only reused when the values they return dont point back into the parser's buffers,
+ * which is CHAR_BUFFER, CHARACTER_SOURCE, or LAX and INDEX_OVERLAY when chop is true and lazyChop is false.
+ * Otherwise this works the same as the JsonSlurper.
+ * Inputs bigger than the maxPooledSize get a new parser so a big payload does not leave a big buffer on the thread.
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class PooledJsonSlurper extends JsonSlurper {
+
+    /** inputs with more chars or bytes than this are parsed with a new parser that is not kept */
+    int maxPooledSize = 64 * 1024
+
+    private ThreadLocal<JsonParser> parsers = new ThreadLocal<JsonParser>()
+
+    /**
+     * true if the parsers for the settings can be reused
+     */
+    boolean isReusable() {
+        JsonParserType parserType = getType()
+        if (parserType == JsonParserType.LAX || parserType == JsonParserType.INDEX_OVERLAY) {
+            return isChop() && !isLazyChop()
+        }
+        return true
+    }
+
+    PooledJsonSlurper setMaxPooledSize(int maxPooledSize) {
+        this.maxPooledSize = maxPooledSize
+        return this
+    }
+
+    @Override
+    JsonSlurper setType(JsonParserType type) {
+        resetPool()
+        return super.setType(type)
+    }
+
+    @Override
+    JsonSlurper setChop(boolean chop) {
+        resetPool()
+        return super.setChop(chop)
+    }
+
+    @Override
+    JsonSlurper setLazyChop(boolean lazyChop) {
+        resetPool()
+        return super.setLazyChop(lazyChop)
+    }
+
+    @Override
+    JsonSlurper setCheckDates(boolean checkDates) {
+        resetPool()
+        return super.setCheckDates(checkDates)
+    }
+
+    @Override
+    Object parseText(String text) {
+        if (text == null || text.isEmpty()) throw new IllegalArgumentException("Text must not be null or empty")
+        JsonParser parser = takeParser(text.length())
+        Object result = parser.parse(text)
+        releaseParser(parser, text.length())
+        return result
+    }
+
+    @Override
+    Object parse(char[] chars) {
+        if (chars == null) throw new IllegalArgumentException("chars must not be null")
+        JsonParser parser = takeParser(chars.length)
+        Object result = parser.parse(chars)
+        releaseParser(parser, chars.length)
+        return result
+    }
+
+    @Override
+    Object parse(byte[] bytes) {
+        return parse(bytes, StandardCharsets.UTF_8.name())
+    }
+
+    @Override
+    Object parse(byte[] bytes, String charset) {
+        if (bytes == null) throw new IllegalArgumentException("bytes must not be null")
+        JsonParser parser = takeParser(bytes.length)
+        Object result = charset == null ? parser.parse(bytes) : parser.parse(bytes, charset)
+        releaseParser(parser, bytes.length)
+        return result
+    }
+
+    @Override
+    Object parse(InputStream inputStream) {
+        return parse(inputStream, null)
+    }
+
+    @Override
+    Object parse(InputStream inputStream, String charset) {
+        if (inputStream == null) throw new IllegalArgumentException("inputStream must not be null")
+        //size is not known until its read so count it to know if the parser can be kept
+        CountingInputStream countingStream = new CountingInputStream(inputStream)
+        JsonParser parser = takeParser(0)
+        Object result = charset == null ? parser.parse(countingStream) : parser.parse(countingStream, charset)
+        releaseParser(parser, countingStream.byteCount)
+        return result
+    }
+
+    /**
+     * Gets the thread's parser and removes it so a parse that calls back into this gets its own.
+     * A new parser when the size is over the maxPooledSize or the parsers cant be reused
+     */
+    protected JsonParser takeParser(long size) {
+        if (!isReusable() || size > maxPooledSize) return createParser()
+        JsonParser parser = parsers.get()
+        if (parser == null) return createParser()
+        parsers.set(null)
+        return parser
+    }
+
+    /**
+     * puts the parser back for the thread if its ok to reuse, not called when the parse fails
+     */
+    protected void releaseParser(JsonParser parser, long size) {
+        if (isReusable() && size <= maxPooledSize) parsers.set(parser)
+    }
+
+    /**
+     * new parser for the settings, same as the JsonSlurper does
+     */
+    protected JsonParser createParser() {
+        switch (getType()) {
+            case JsonParserType.LAX:
+                return new JsonParserLax(false, isChop(), isLazyChop(), isCheckDates())
+            case JsonParserType.CHARACTER_SOURCE:
+                return new JsonParserUsingCharacterSource()
+            case JsonParserType.INDEX_OVERLAY:
+                return new JsonFastParser(false, isChop(), isLazyChop(), isCheckDates())
+            default:
+                return new JsonParserCharArray()
+        }
+    }
+
+    /**
+     * settings changed so the parsers already made are no good
+     */
+    protected void resetPool() {
+        parsers = new ThreadLocal<JsonParser>()
+    }
+}
@@ -0,0 +1,198 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.jackson
+
+import groovy.transform.CompileStatic
+
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.core.JsonToken
+import com.fasterxml.jackson.databind.BeanProperty
+import com.fasterxml.jackson.databind.DeserializationContext
+import com.fasterxml.jackson.databind.JsonDeserializer
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer
+import yakworks.commons.map.LazyPathKeyMap
+
+/**
+ * Builds Groovy friendly maps and lists straight from the JsonParser tokens with out a JsonNode tree in between.
+ * Objects become LinkedHashMaps, arrays ArrayLists, and decimals BigDecimals the same as the JsonSlurper.
+ *
+ * - includes is a list of field paths to keep, such as ['id', 'customer.name', 'lines.amount'], a '*' matches any field.
+ *   Arrays are passed through so 'lines.amount' keeps the amount in each of the lines. Fields not included
+ *   are skipped with the parser's skipChildren, so the values in them are never built and their numbers never decoded.
+ *   When null, the default, everything is kept.
+ * - pathKeys wraps the top level maps in a LazyPathKeyMap so keys such as 'customer.name' get nested when its accessed.
+ *
+ * Keys are the strings from the parser's symbol table, which Jackson canonicalizes and interns by default,
+ * so the same field name in every row is the same String instance.
+ *
+ * Numbers are not lazy. Jackson leaves the number text undecoded until its asked for, so the numbers in skipped
+ * subtrees are never decoded, but every kept number is decoded to an Integer, Long, BigInteger or BigDecimal when its read.
+ * A lazy Number wrapper, like the slurper's INDEX_OVERLAY values, was left out on purpose, as these are plain
+ * LinkedHashMaps and callers expect the real number types for equals and instanceof checks.
+ *
+ * Can be used directly with read(JsonParser), from JacksonJson.parseMap, or registered for untyped maps with GroovyModule.
+ * The includes and pathKeys are for the root value. When Jackson uses this for a Map or Object property inside a typed bean
+ * then createContextual gives it a plain one, so the root includes dont drop the fields in the nested value.
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class GroovyMapDeserializer extends StdDeserializer<Object> implements ContextualDeserializer {
+
+    /** the root of the includes tree, null to keep everything */
+    final IncludeNode includes
+
+    /** wrap the top level maps in a LazyPathKeyMap */
+    final boolean pathKeys
+
+    GroovyMapDeserializer() {
+        this(null, false)
+    }
+
+    GroovyMapDeserializer(Collection<String> includes, boolean pathKeys) {
+        super(Object)
+        this.includes = includes ? IncludeNode.of(includes) : null
+        this.pathKeys = pathKeys
+    }
+
+    /**
+     * a plain one, with out the root includes and pathKeys, for the Map and Object properties in beans
+     */
+    @Override
+    JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) {
+        if (property == null || (includes == null && !pathKeys)) return this
+        return new GroovyMapDeserializer()
+    }
+
+    @Override
+    Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return readRoot(p)
+    }
+
+    /**
+     * reads the next value from the parser, moving to the first token if the parser has not been started
+     */
+    Object read(JsonParser p) {
+        if (!p.hasCurrentToken()) p.nextToken()
+        return readRoot(p)
+    }
+
+    protected Object readRoot(JsonParser p) {
+        Object value = readValue(p, includes)
+        if (pathKeys) {
+            if (value instanceof Map) return wrapPathKeys((Map)value)
+            if (value instanceof List) {
+                List list = (List)value
+                for (int i = 0; i < list.size(); i++) {
+                    Object item = list.get(i)
+                    if (item instanceof Map) list.set(i, wrapPathKeys((Map)item))
+                }
+            }
+        }
+        return value
+    }
+
+    protected static Map wrapPathKeys(Map map) {
+        return LazyPathKeyMap.of((Map<String, Object>)map)
+    }
+
+    /**
+     * reads the value at the current token
+     * @param node the includes for the value, null to keep all of it
+     */
+    protected Object readValue(JsonParser p, IncludeNode node) {
+        switch (p.currentToken()) {
+            case JsonToken.START_OBJECT:
+            case JsonToken.FIELD_NAME:
+                return readObject(p, node)
+            case JsonToken.START_ARRAY:
+                return readArray(p, node)
+            //jackson can call with the END_OBJECT for an empty object, same as its MapDeserializer
+            case JsonToken.END_OBJECT:
+                return new LinkedHashMap<String, Object>()
+            case JsonToken.VALUE_STRING:
+                return p.getText()
+            //decoded eagerly, see class doc
+            case JsonToken.VALUE_NUMBER_INT:
+                return p.getNumberValue()
+            case JsonToken.VALUE_NUMBER_FLOAT:
+                return p.getDecimalValue()
+            case JsonToken.VALUE_TRUE:
+                return Boolean.TRUE
+            case JsonToken.VALUE_FALSE:
+                return Boolean.FALSE
+            case JsonToken.VALUE_NULL:
+                return null
+            case JsonToken.VALUE_EMBEDDED_OBJECT:
+                return p.getEmbeddedObject()
+            default:
+                throw new IllegalStateException("Unexpected json token ${p.currentToken()}")
+        }
+    }
+
+    protected Map<String, Object> readObject(JsonParser p, IncludeNode node) {
+        Map<String, Object> map = new LinkedHashMap<String, Object>()
+        //called on the FIELD_NAME when jackson has already started the object
+        String name = p.currentToken() == JsonToken.FIELD_NAME ? p.currentName() : p.nextFieldName()
+        while (name != null) {
+            p.nextToken()
+            if (node == null) {
+                map.put(name, readValue(p, null))
+            } else {
+                IncludeNode child = node.child(name)
+                if (child == null) {
+                    p.skipChildren()
+                } else {
+                    map.put(name, readValue(p, child.all ? null : child))
+                }
+            }
+            name = p.nextFieldName()
+        }
+        return map
+    }
+
+    protected List<Object> readArray(JsonParser p, IncludeNode node) {
+        List<Object> list = new ArrayList<Object>()
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            list.add(readValue(p, node))
+        }
+        return list
+    }
+
+    /**
+     * Tree of the include paths. A node is all when the path ended there, so everything under it is kept.
+     */
+    @CompileStatic
+    static class IncludeNode {
+        final Map<String, IncludeNode> children = new HashMap<String, IncludeNode>()
+        boolean all = false
+
+        static IncludeNode of(Collection<String> paths) {
+            IncludeNode root = new IncludeNode()
+            for (String path : paths) {
+                IncludeNode node = root
+                for (String name : path.tokenize('.')) {
+                    IncludeNode child = node.children.get(name)
+                    if (child == null) {
+                        child = new IncludeNode()
+                        node.children.put(name, child)
+                    }
+                    node = child
+                }
+                node.all = true
+            }
+            return root
+        }
+
+        /**
+         * the node for the field, null if its not included
+         */
+        IncludeNode child(String name) {
+            IncludeNode child = children.get(name)
+            return child != null ? child : children.get('*')
+        }
+    }
+}
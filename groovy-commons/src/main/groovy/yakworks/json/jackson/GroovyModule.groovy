@@ -7,21 +7,83 @@ package yakworks.json.jackson
 import groovy.transform.CompileStatic
 
 import com.fasterxml.jackson.core.JsonGenerator
+import com.fasterxml.jackson.databind.BeanDescription
+import com.fasterxml.jackson.databind.DeserializationConfig
+import com.fasterxml.jackson.databind.JavaType
+import com.fasterxml.jackson.databind.JsonDeserializer
 import com.fasterxml.jackson.databind.JsonSerializer
+import com.fasterxml.jackson.databind.KeyDeserializer
 import com.fasterxml.jackson.databind.SerializerProvider
+import com.fasterxml.jackson.databind.deser.Deserializers
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer
 import com.fasterxml.jackson.databind.module.SimpleModule
+import com.fasterxml.jackson.databind.type.MapType
 
 /**
  * Jackson "Module" (normal java Service that gets loaded with ServiceLoader)
- * that will serialize GStrings properly with groovy
+ * that will serialize GStrings properly with groovy.
+ * Use the mapDeserializer to have the untyped maps read with the GroovyMapDeserializer.
+ * One with a mapDeserializer has its own type id, so it can be registered on a mapper that already loaded
+ * the plain GroovyModule with findAndRegisterModules, such as the ObjectMapperWrapper's, and is not dropped as a duplicate.
  */
 @CompileStatic
 class GroovyModule  extends SimpleModule {
 
+    /** when set its used for the untyped Map and Object reads */
+    GroovyMapDeserializer mapDeserializer
+
     GroovyModule() {
         addSerializer(GString, new GStringJsonSerializer())
     }
 
+    /**
+     * Reads Map, Map<String, Object> and Object with the GroovyMapDeserializer,
+     * typed maps such as Map<String, Thing> are left for jackson.
+     *
+     * Example:
+     *   ObjectMapperWrapper.setupDefaultObjectMapper()
+     *     .registerModule(new GroovyModule().mapDeserializer(new GroovyMapDeserializer(['id', 'name'], false)))
+     */
+    GroovyModule mapDeserializer(GroovyMapDeserializer deserializer) {
+        this.mapDeserializer = deserializer
+        return this
+    }
+
+    @Override
+    Object getTypeId() {
+        if (mapDeserializer == null) return super.getTypeId()
+        return "${GroovyModule.name}.mapDeserializer-${System.identityHashCode(mapDeserializer)}".toString()
+    }
+
+    @Override
+    void setupModule(SetupContext context) {
+        super.setupModule(context)
+        if (mapDeserializer) context.addDeserializers(new UntypedMapDeserializers(mapDeserializer))
+    }
+
+    @CompileStatic
+    static class UntypedMapDeserializers extends Deserializers.Base {
+        final GroovyMapDeserializer deserializer
+
+        UntypedMapDeserializers(GroovyMapDeserializer deserializer) {
+            this.deserializer = deserializer
+        }
+
+        @Override
+        JsonDeserializer<?> findMapDeserializer(MapType type, DeserializationConfig config, BeanDescription beanDesc,
+                                                KeyDeserializer keyDeserializer, TypeDeserializer elementTypeDeserializer,
+                                                JsonDeserializer<?> elementDeserializer) {
+            boolean untyped = type.rawClass.isAssignableFrom(LinkedHashMap) &&
+                type.keyType.rawClass in [String, Object] && type.contentType.rawClass == Object
+            return untyped ? deserializer : null
+        }
+
+        @Override
+        JsonDeserializer<?> findBeanDeserializer(JavaType type, DeserializationConfig config, BeanDescription beanDesc) {
+            return type.rawClass == Object ? deserializer : null
+        }
+    }
+
     static class GStringJsonSerializer extends JsonSerializer<GString> {
 
         @Override
@@ -8,8 +8,11 @@ import java.lang.reflect.Type
 
 import groovy.transform.CompileStatic
 
+import com.fasterxml.jackson.core.JsonParser
 import com.fasterxml.jackson.databind.JsonNode
 import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.ObjectReader
+import com.fasterxml.jackson.databind.ObjectWriter
 
 /**
  * Static helpers around Jackson. Many of these are not really needed but serves as what we consider more obvious
@@ -18,10 +21,31 @@ import com.fasterxml.jackson.databind.ObjectMapper
 @CompileStatic //JacksonJson.
 class JacksonJson {
 
+    /**
+     * The shared ObjectMapper. The readers and writers are cached with its config when first used,
+     * so call clearCache after changing its config.
+     */
     static ObjectMapper getObjectMapper() {
         ObjectMapperWrapper.instance.objectMapper
     }
 
+    /**
+     * clears the cached ObjectReaders and ObjectWriters so they pick up changes made to the getObjectMapper config
+     */
+    static void clearCache() {
+        ObjectMapperWrapper.instance.clearCache()
+    }
+
+    /** the cached ObjectReader for the type, see ObjectMapperWrapper.reader */
+    static ObjectReader reader(Type type) {
+        ObjectMapperWrapper.instance.reader(type)
+    }
+
+    /** the cached ObjectWriter for the type, see ObjectMapperWrapper.writer */
+    static ObjectWriter writer(Type type) {
+        ObjectMapperWrapper.instance.writer(type)
+    }
+
     /** convert object to json string */
     static String toJson(Object object){
         stringify(object)
@@ -29,7 +53,20 @@ class JacksonJson {
 
     /** convert object to json string */
     static String stringify(Object value){
-        return objectMapper.writeValueAsString(value)
+        return writer(Object).writeValueAsString(value)
+    }
+
+    /**
+     * Writes the object as UTF-8 json straight to the stream, with out making a String first.
+     * Flushes but does not close the stream.
+     */
+    static void writeTo(Object value, OutputStream out){
+        ObjectMapperWrapper.instance.writeTo(value, out)
+    }
+
+    /** convert object to UTF-8 json bytes */
+    static byte[] toBytes(Object value){
+        return writer(Object).writeValueAsBytes(value)
     }
 
     /**
@@ -37,16 +74,43 @@ class JacksonJson {
      * usually would call this with parseJson(text, Map) or parseJson(text, List)
      */
     public static <T> T parseJson(String text, Class<T> clazz) {
-        def parsedObj = objectMapper.readValue(text, clazz)
+        def parsedObj = reader(clazz).readValue(text)
         return (T)parsedObj
     }
 
     public static <T> T fromString(String string, Class<T> clazz) {
-        return objectMapper.readValue(string, clazz)
+        return (T)reader(clazz).readValue(string)
     }
 
     public static <T> T fromString(String string, Type type) {
-        return objectMapper.readValue(string, objectMapper.getTypeFactory().constructType(type))
+        return (T)reader(type).readValue(string)
+    }
+
+    /**
+     * Parse the json to maps and lists with the GroovyMapDeserializer, keeping only the fields in the includes.
+     * @param includes the field paths to keep such as ['id', 'customer.name'], null to keep all
+     */
+    static Object parseMap(String text, Collection<String> includes = null) {
+        JsonParser parser = objectMapper.factory.createParser(text)
+        try {
+            return new GroovyMapDeserializer(includes, false).read(parser)
+        } finally {
+            parser.close()
+        }
+    }
+
+    /**
+     * Parse the json from the stream to maps and lists with the GroovyMapDeserializer, does not close the stream.
+     * @see #parseMap(String, Collection)
+     */
+    static Object parseMap(InputStream inputStream, Collection<String> includes = null) {
+        JsonParser parser = objectMapper.factory.createParser(inputStream)
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+        try {
+            return new GroovyMapDeserializer(includes, false).read(parser)
+        } finally {
+            parser.close()
+        }
     }
 
     static JsonNode toJsonNode(String value) {
@@ -64,11 +128,10 @@ class JacksonJson {
     }
 
     public static <T> T fromBytes(byte[] value, Class<T> clazz) throws IOException {
-        return objectMapper.readValue(value, clazz);
+        return (T)reader(clazz).readValue(value);
     }
 
     public static <T> T fromBytes(byte[] value, Type type) throws IOException {
-        return objectMapper.readValue(value, objectMapper.getTypeFactory().constructType(type));
-
+        return (T)reader(type).readValue(value);
     }
 }
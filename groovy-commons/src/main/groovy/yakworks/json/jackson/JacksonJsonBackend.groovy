@@ -0,0 +1,231 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.jackson
+
+import java.text.SimpleDateFormat
+
+import groovy.json.JsonGenerator
+import groovy.transform.CompileStatic
+
+import com.fasterxml.jackson.annotation.JsonInclude
+import com.fasterxml.jackson.core.JsonGenerator as JacksonGenerator
+import com.fasterxml.jackson.databind.BeanDescription
+import com.fasterxml.jackson.databind.DeserializationFeature
+import com.fasterxml.jackson.databind.JavaType
+import com.fasterxml.jackson.databind.JsonSerializer
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.SerializationConfig
+import com.fasterxml.jackson.databind.SerializationFeature
+import com.fasterxml.jackson.databind.SerializerProvider
+import com.fasterxml.jackson.databind.module.SimpleModule
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier
+import com.fasterxml.jackson.databind.ser.Serializers
+import com.fasterxml.jackson.databind.ser.impl.StringArraySerializer
+import com.fasterxml.jackson.databind.ser.std.AsArraySerializerBase
+import com.fasterxml.jackson.databind.ser.std.StaticListSerializerBase
+import com.fasterxml.jackson.databind.ser.std.StdSerializer
+import com.fasterxml.jackson.databind.type.ArrayType
+import com.fasterxml.jackson.databind.type.CollectionType
+import yakworks.json.groovy.JsonBackend
+import yakworks.json.groovy.JsonEngine
+import yakworks.meta.MetaUtils
+
+/**
+ * JsonBackend on Jackson that writes the same json as the JsonEngine's groovy generator for the same settings.
+ * Uses an ObjectMapperWrapper set up with
+ *
+ * - the JsonEngine's dateFormat, timeZone and locale for Date and Calendar
+ * - nulls left out of objects, maps and lists when excludeNulls
+ * - the JsonEngine.getConverters, so the java.time, Currency, URI and service loaded converters are used the same way
+ * - BigDecimal for decimals when parsing, same as the JsonSlurper
+ *
+ * Groovy only types such as Closure and Expando are not supported. See JacksonJsonBackendSpec for what is compared.
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class JacksonJsonBackend implements JsonBackend {
+
+    static final String NAME = 'jackson'
+
+    final ObjectMapperWrapper objectMapperWrapper
+
+    JacksonJsonBackend(JsonEngine engine) {
+        this.objectMapperWrapper = new ObjectMapperWrapper(setupObjectMapper(engine))
+    }
+
+    /**
+     * the default ObjectMapperWrapper mapper set up to match the JsonEngine settings
+     */
+    static ObjectMapper setupObjectMapper(JsonEngine engine) {
+        ObjectMapper mapper = ObjectMapperWrapper.setupDefaultObjectMapper()
+        mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+        mapper.configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true)
+        SimpleDateFormat dateFormat = new SimpleDateFormat(engine.dateFormat, engine.buildLocale())
+        TimeZone tz = TimeZone.getTimeZone(engine.timeZone)
+        dateFormat.setTimeZone(tz)
+        mapper.setDateFormat(dateFormat)
+        mapper.setTimeZone(tz)
+        JsonInclude.Include include = engine.excludeNulls ? JsonInclude.Include.NON_NULL : JsonInclude.Include.ALWAYS
+        mapper.setDefaultPropertyInclusion(JsonInclude.Value.construct(include, include))
+        //registered last so it wins over the jsr310 module
+        mapper.registerModule(new ConvertersModule(engine.getConverters(), engine.excludeNulls))
+        return mapper
+    }
+
+    ObjectMapper getObjectMapper() {
+        return objectMapperWrapper.objectMapper
+    }
+
+    @Override
+    String getName() {
+        return NAME
+    }
+
+    @Override
+    String toJson(Object object) {
+        return objectMapperWrapper.toString(object)
+    }
+
+    @Override
+    void writeTo(Object object, OutputStream out) {
+        objectMapperWrapper.writeTo(object, out)
+    }
+
+    @Override
+    byte[] toBytes(Object object) {
+        return objectMapperWrapper.toBytes(object)
+    }
+
+    @Override
+    Object parseJson(String text) {
+        return objectMapperWrapper.fromString(text, Object)
+    }
+
+    /**
+     * Module that uses the groovy JsonGenerator.Converters, first one that handles the type wins like the groovy generator.
+     */
+    @CompileStatic
+    static class ConvertersModule extends SimpleModule {
+        final List<JsonGenerator.Converter> converters
+        final boolean excludeNulls
+
+        ConvertersModule(List<JsonGenerator.Converter> converters, boolean excludeNulls) {
+            super(ConvertersModule.simpleName)
+            this.converters = converters
+            this.excludeNulls = excludeNulls
+        }
+
+        @Override
+        void setupModule(SetupContext context) {
+            super.setupModule(context)
+            context.addSerializers(new ConverterSerializers(converters))
+            context.addBeanSerializerModifier(new GroovyGeneratorModifier(excludeNulls))
+        }
+    }
+
+    /**
+     * Makes the bean and list serializers match the groovy generator.
+     * Orders the object properties the same as the MetaUtils.getPropertyGetters the EnhancedJsonGenerator uses.
+     * When excludeNulls swaps the standard jackson list and array serializers for the SkipNullsSerializer,
+     * as the groovy generator leaves the nulls out of lists too. Custom ones such as the MetaModule's are left alone.
+     */
+    @CompileStatic
+    static class GroovyGeneratorModifier extends BeanSerializerModifier {
+        final boolean excludeNulls
+
+        GroovyGeneratorModifier(boolean excludeNulls) {
+            this.excludeNulls = excludeNulls
+        }
+
+        @Override
+        List<BeanPropertyWriter> orderProperties(SerializationConfig config, BeanDescription beanDesc, List<BeanPropertyWriter> beanProperties) {
+            List<String> names = Arrays.asList(MetaUtils.getPropertyGetters(beanDesc.beanClass).names)
+            //ones the groovy generator doesnt know about go at the end
+            return beanProperties.sort(false) { BeanPropertyWriter prop ->
+                int idx = names.indexOf(prop.name)
+                idx < 0 ? Integer.MAX_VALUE : idx
+            }
+        }
+
+        @Override
+        JsonSerializer<?> modifyCollectionSerializer(SerializationConfig config, CollectionType valueType,
+                                                     BeanDescription beanDesc, JsonSerializer<?> serializer) {
+            return (excludeNulls && isStandard(serializer)) ? new SkipNullsSerializer() : serializer
+        }
+
+        @Override
+        JsonSerializer<?> modifyArraySerializer(SerializationConfig config, ArrayType valueType,
+                                                BeanDescription beanDesc, JsonSerializer<?> serializer) {
+            //primitive arrays cant have nulls
+            if (valueType.contentType.primitive) return serializer
+            return (excludeNulls && isStandard(serializer)) ? new SkipNullsSerializer() : serializer
+        }
+
+        static boolean isStandard(JsonSerializer<?> serializer) {
+            return serializer instanceof AsArraySerializerBase || serializer instanceof StaticListSerializerBase ||
+                serializer instanceof StringArraySerializer
+        }
+    }
+
+    /**
+     * writes a Collection or Object[] as an array with out the nulls
+     */
+    @CompileStatic
+    static class SkipNullsSerializer extends StdSerializer<Object> {
+
+        SkipNullsSerializer() {
+            super(Object)
+        }
+
+        @Override
+        void serialize(Object value, JacksonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartArray(value)
+            Iterator iter = value instanceof Object[] ? Arrays.asList((Object[])value).iterator() : ((Iterable)value).iterator()
+            while (iter.hasNext()) {
+                Object item = iter.next()
+                if (item != null) provider.defaultSerializeValue(item, gen)
+            }
+            gen.writeEndArray()
+        }
+    }
+
+    @CompileStatic
+    static class ConverterSerializers extends Serializers.Base {
+        final List<JsonGenerator.Converter> converters
+
+        ConverterSerializers(List<JsonGenerator.Converter> converters) {
+            this.converters = converters
+        }
+
+        @Override
+        JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type, BeanDescription beanDesc) {
+            Class rawClass = type.rawClass
+            for (JsonGenerator.Converter converter : converters) {
+                if (converter.handles(rawClass)) return new ConverterSerializer(converter)
+            }
+            return null
+        }
+    }
+
+    /**
+     * serializes with the converter, the key is the field name when its a property or map entry.
+     */
+    @CompileStatic
+    static class ConverterSerializer extends JsonSerializer<Object> {
+        final JsonGenerator.Converter converter
+
+        ConverterSerializer(JsonGenerator.Converter converter) {
+            this.converter = converter
+        }
+
+        @Override
+        void serialize(Object value, JacksonGenerator gen, SerializerProvider provider) throws IOException {
+            Object converted = converter.convert(value, gen.outputContext.currentName)
+            provider.defaultSerializeValue(converted, gen)
+        }
+    }
+}
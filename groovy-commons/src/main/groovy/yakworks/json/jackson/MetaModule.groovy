@@ -0,0 +1,227 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.json.jackson
+
+import groovy.transform.CompileStatic
+
+import com.fasterxml.jackson.annotation.JsonInclude
+import com.fasterxml.jackson.core.JsonGenerator
+import com.fasterxml.jackson.databind.BeanProperty
+import com.fasterxml.jackson.databind.JsonSerializer
+import com.fasterxml.jackson.databind.SerializerProvider
+import com.fasterxml.jackson.databind.module.SimpleModule
+import com.fasterxml.jackson.databind.ser.ContextualSerializer
+import yakworks.meta.MetaEntity
+import yakworks.meta.MetaEntityAccessor
+import yakworks.meta.MetaMap
+import yakworks.meta.MetaMapList
+
+/**
+ * Jackson "Module" (normal java Service that gets loaded with ServiceLoader, see GroovyModule)
+ * with serializers for the MetaMap and MetaMapList.
+ * Without them Jackson treats a MetaMap as a generic Map and goes through the entrySet, creating an Entry for each key.
+ * These write the fields in the order of the keys and a MetaMapList that has not been hydrated is written
+ * straight from the MetaEntity and the resultList rows, without wrapping each row in a MetaMap.
+ *
+ * Null values follow the content inclusion for Map, the same setting Jackson's MapSerializer uses for the values,
+ * so the output is the same as when a MetaMap was written as a plain Map.
+ * With ObjectMapperWrapper's NON_NULL they are left out, with a plain ObjectMapper they are written.
+ *
+ * A MetaMapList is written as an array by default. When writeTotalCount is true and its the root value it is written as
+ * an object with the totalCount from the TotalCount and the rows in data, for example {"totalCount":100,"data":[...]}.
+ * Nested ones, such as an association in a MetaMap, are always arrays, same as the EnhancedJsonGenerator.
+ * The one loaded with findAndRegisterModules uses the default array, register a new MetaModule(true) on a mapper to change it.
+ * The MetaModule(true) has its own type id so Jackson does not drop it as a duplicate of the one already loaded,
+ * and since the modules registered last are looked at first its serializers win.
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class MetaModule extends SimpleModule {
+
+    /** when true the root MetaMapList is written as an object with the totalCount and the data */
+    final boolean writeTotalCount
+
+    MetaModule() {
+        this(false)
+    }
+
+    MetaModule(boolean writeTotalCount) {
+        this.writeTotalCount = writeTotalCount
+        addSerializer(MetaMap, new MetaMapSerializer())
+        addSerializer(MetaMapList, new MetaMapListSerializer(writeTotalCount))
+    }
+
+    @Override
+    Object getTypeId() {
+        return writeTotalCount ? "${MetaModule.name}.writeTotalCount".toString() : super.getTypeId()
+    }
+
+    /**
+     * true if the null values should be left out. Uses the content inclusion for Map from the property or the mapper,
+     * same as the MapSerializer does, so the MetaMaps are written the same as a plain Map would be.
+     */
+    static boolean isSkipNulls(SerializerProvider provider, BeanProperty property) {
+        JsonInclude.Value incl = property != null ? property.findPropertyInclusion(provider.getConfig(), Map)
+            : provider.getConfig().getDefaultPropertyInclusion(Map)
+        JsonInclude.Include content = incl.getContentInclusion()
+        return content != JsonInclude.Include.USE_DEFAULTS && content != JsonInclude.Include.ALWAYS
+    }
+
+    /**
+     * Writes the MetaMap fields from its keySet
+     */
+    static class MetaMapSerializer extends JsonSerializer<MetaMap> implements ContextualSerializer {
+
+        final boolean skipNulls
+
+        MetaMapSerializer() {
+            this(true)
+        }
+
+        MetaMapSerializer(boolean skipNulls) {
+            this.skipNulls = skipNulls
+        }
+
+        @Override
+        JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) {
+            boolean skip = isSkipNulls(provider, property)
+            return skip == skipNulls ? this : new MetaMapSerializer(skip)
+        }
+
+        @Override
+        void serialize(MetaMap value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeMetaMap(value, gen, provider, skipNulls)
+        }
+
+        @Override
+        Class<MetaMap> handledType() {
+            return MetaMap
+        }
+
+        static void writeMetaMap(MetaMap value, JsonGenerator gen, SerializerProvider provider, boolean skipNulls) {
+            gen.writeStartObject(value)
+            for (String key : value.keySet()) {
+                Object val = value.get(key)
+                if (val == null) {
+                    if (skipNulls) continue
+                    gen.writeNullField(key)
+                } else {
+                    gen.writeFieldName(key)
+                    provider.defaultSerializeValue(val, gen)
+                }
+            }
+            gen.writeEndObject()
+        }
+    }
+
+    /**
+     * Writes the MetaMapList rows, reading the props with the MetaEntity accessor when its not hydrated.
+     */
+    static class MetaMapListSerializer extends JsonSerializer<MetaMapList> implements ContextualSerializer {
+
+        final boolean writeTotalCount
+        final boolean skipNulls
+
+        MetaMapListSerializer(boolean writeTotalCount) {
+            this(writeTotalCount, true)
+        }
+
+        MetaMapListSerializer(boolean writeTotalCount, boolean skipNulls) {
+            this.writeTotalCount = writeTotalCount
+            this.skipNulls = skipNulls
+        }
+
+        @Override
+        JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) {
+            boolean skip = isSkipNulls(provider, property)
+            return skip == skipNulls ? this : new MetaMapListSerializer(writeTotalCount, skip)
+        }
+
+        @Override
+        void serialize(MetaMapList value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            //only the root gets the wrapper, nested lists stay arrays
+            if (writeTotalCount && gen.outputContext.inRoot()) {
+                gen.writeStartObject(value)
+                gen.writeNumberField('totalCount', value.totalCount)
+                gen.writeFieldName('data')
+                writeRows(value, gen, provider)
+                gen.writeEndObject()
+            } else {
+                writeRows(value, gen, provider)
+            }
+        }
+
+        @Override
+        Class<MetaMapList> handledType() {
+            return MetaMapList
+        }
+
+        protected void writeRows(MetaMapList value, JsonGenerator gen, SerializerProvider provider) {
+            MetaEntity metaEntity = value.metaEntity
+            if (metaEntity == null) {
+                //get wraps them in a MetaMap with out a MetaEntity
+                gen.writeStartArray(value, value.size())
+                for (MetaMap mmap : value) {
+                    MetaMapSerializer.writeMetaMap(mmap, gen, provider, skipNulls)
+                }
+                gen.writeEndArray()
+            } else {
+                List rows = value.getListToUse()
+                gen.writeStartArray(value, rows.size())
+                writeMetaItems(rows, metaEntity, gen, provider)
+                gen.writeEndArray()
+            }
+        }
+
+        /**
+         * Writes the source as an object, reading the props from the MetaEntity.
+         * Same as writing a new MetaMap(source, metaEntity) with out creating the MetaMap.
+         */
+        protected void writeMetaEntity(Object source, MetaEntity metaEntity, JsonGenerator gen, SerializerProvider provider) {
+            //already a MetaMap, such as one that was hydrated
+            if (source instanceof MetaMap) {
+                MetaMapSerializer.writeMetaMap((MetaMap)source, gen, provider, skipNulls)
+                return
+            }
+            MetaEntityAccessor accessor = metaEntity.accessorFor(source.getClass())
+            String[] names = accessor.names
+            gen.writeStartObject(source)
+            for (int i = 0; i < names.length; i++) {
+                String key = names[i]
+                Object val = accessor.getValue(source, i)
+                if (val == null) {
+                    if (skipNulls) continue
+                    gen.writeNullField(key)
+                    continue
+                }
+                MetaEntity nested = accessor.nestedEntities[i]
+                gen.writeFieldName(key)
+                if (MetaMap.isNestedValue(val, nested)) {
+                    if (val instanceof Iterable) {
+                        gen.writeStartArray()
+                        writeMetaItems((Iterable)val, nested, gen, provider)
+                        gen.writeEndArray()
+                    } else {
+                        writeMetaEntity(val, nested, gen, provider)
+                    }
+                } else {
+                    provider.defaultSerializeValue(MetaMap.convertBasicValue(val, key), gen)
+                }
+            }
+            gen.writeEndObject()
+        }
+
+        protected void writeMetaItems(Iterable items, MetaEntity metaEntity, JsonGenerator gen, SerializerProvider provider) {
+            for (Object item : items) {
+                if (item == null) {
+                    gen.writeNull()
+                } else {
+                    writeMetaEntity(item, metaEntity, gen, provider)
+                }
+            }
+        }
+    }
+}
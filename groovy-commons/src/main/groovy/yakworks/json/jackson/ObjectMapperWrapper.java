@@ -10,12 +10,16 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 import groovy.lang.GString;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Type;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
 import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 
@@ -24,6 +28,10 @@ import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
  * see Jackson2ObjectMapperBuilder from Spring and the com.vladmihalcea.hibernate.type.util.ObjectMapperWrapper for design
  *
  * calls findAndRegisterModules to
+ *
+ * The ObjectReaders and ObjectWriters are cached by the java.lang.reflect.Type and view, see reader(Type) and writer(Type),
+ * so the JavaType is only constructed and the config looked up on a miss. Since they copy the mapper config when made,
+ * the ObjectMapper should be configured before its used here or clearCache called after, see JacksonJson.clearCache.
  */
 public class ObjectMapperWrapper implements Serializable {
 
@@ -31,6 +39,10 @@ public class ObjectMapperWrapper implements Serializable {
 
     private final ObjectMapper objectMapper;
 
+    //not serialized, readResolve gives a new wrapper with empty ones
+    private final transient ConcurrentMap<CacheKey, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final transient ConcurrentMap<CacheKey, ObjectWriter> writers = new ConcurrentHashMap<>();
+
     public ObjectMapperWrapper() {
         this(setupDefaultObjectMapper());
     }
@@ -61,35 +73,131 @@ public class ObjectMapperWrapper implements Serializable {
         return objectMapper;
     }
 
+    /**
+     * the cached ObjectReader for the type
+     */
+    public ObjectReader reader(Type type) {
+        return reader(type, null);
+    }
+
+    /**
+     * the cached ObjectReader for the type with the JsonView, view can be null for none
+     */
+    public ObjectReader reader(Type type, Class<?> view) {
+        CacheKey key = new CacheKey(type, view);
+        ObjectReader reader = readers.get(key);
+        if (reader == null) {
+            reader = objectMapper.readerFor(objectMapper.constructType(type));
+            if (view != null) reader = reader.withView(view);
+            ObjectReader existing = readers.putIfAbsent(key, reader);
+            if (existing != null) reader = existing;
+        }
+        return reader;
+    }
+
+    /**
+     * the cached ObjectWriter for the type, Object.class for one that uses the runtime type of the value like the ObjectMapper does
+     */
+    public ObjectWriter writer(Type type) {
+        return writer(type, null);
+    }
+
+    /**
+     * the cached ObjectWriter for the type with the JsonView, view can be null for none
+     */
+    public ObjectWriter writer(Type type, Class<?> view) {
+        CacheKey key = new CacheKey(type, view);
+        ObjectWriter writer = writers.get(key);
+        if (writer == null) {
+            //Object is untyped so the writer finds the serializer from the value
+            writer = type == Object.class ? objectMapper.writer() : objectMapper.writerFor(objectMapper.constructType(type));
+            if (view != null) writer = writer.withView(view);
+            ObjectWriter existing = writers.putIfAbsent(key, writer);
+            if (existing != null) writer = existing;
+        }
+        return writer;
+    }
+
+    /**
+     * clears the cached readers and writers, call after changing the ObjectMapper config
+     */
+    public void clearCache() {
+        readers.clear();
+        writers.clear();
+    }
+
+    /**
+     * the transient caches are null after deserializing, so swap in a new wrapper for the mapper
+     */
+    private Object readResolve() {
+        return new ObjectMapperWrapper(objectMapper);
+    }
+
     public <T> T fromString(String string, Class<T> clazz) throws JsonProcessingException {
-        return objectMapper.readValue(string, clazz);
+        return reader(clazz).readValue(string);
     }
 
     public <T> T fromString(String string, Type type) throws JsonProcessingException {
-        return objectMapper.readValue(string, objectMapper.getTypeFactory().constructType(type));
+        return reader(type).readValue(string);
     }
 
     public <T> T fromBytes(byte[] value, Class<T> clazz) throws IOException {
-        return objectMapper.readValue(value, clazz);
+        return reader(clazz).readValue(value);
     }
 
     public <T> T fromBytes(byte[] value, Type type) throws IOException {
-        return objectMapper.readValue(value, objectMapper.getTypeFactory().constructType(type));
-
+        return reader(type).readValue(value);
     }
 
     public String toString(Object value) throws JsonProcessingException {
-        return objectMapper.writeValueAsString(value);
+        return writer(Object.class).writeValueAsString(value);
     }
 
     public byte[] toBytes(Object value) throws JsonProcessingException {
-        return objectMapper.writeValueAsBytes(value);
+        return writer(Object.class).writeValueAsBytes(value);
+    }
+
+    /**
+     * Writes the value as UTF-8 json to the stream. Jackson encodes straight to the stream using its
+     * per thread recycled buffers. Flushes but does not close the stream.
+     */
+    public void writeTo(Object value, OutputStream out) throws IOException {
+        writer(Object.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, value);
     }
 
     public JsonNode toJsonNode(String value) throws JsonProcessingException {
         return objectMapper.readTree(value);
     }
 
+    /**
+     * key for the reader and writer caches. Class, the JDK ParameterizedType and JavaType all implement equals and hashCode,
+     * so the same type from a TypeReference matches.
+     */
+    static final class CacheKey implements Serializable {
+        final Type type;
+        final Class<?> view;
+        private final int hash;
+
+        CacheKey(Type type, Class<?> view) {
+            this.type = type;
+            this.view = view;
+            this.hash = 31 * type.hashCode() + (view == null ? 0 : view.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CacheKey)) return false;
+            CacheKey other = (CacheKey) o;
+            return type.equals(other.type) && Objects.equals(view, other.view);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
     public static class OffsetDateTimeSerializer extends com.fasterxml.jackson.databind.JsonSerializer<OffsetDateTime> {
 
         public static final OffsetDateTimeSerializer INSTANCE = new OffsetDateTimeSerializer();
@@ -4,6 +4,8 @@
 */
 package yakworks.meta
 
+import java.util.concurrent.ConcurrentHashMap
+
 import groovy.transform.CompileStatic
 import groovy.util.logging.Slf4j
 
@@ -40,6 +42,16 @@ class MetaEntity extends MetaProp implements Serializable {
     /** The source excludes */
     Set<String> excludes
 
+    //precomputed views, only populated once frozen. see freeze()
+    private Map<String, MetaEntity> frozenEntityProps
+    private Set<String> frozenBasicProps
+    private Map<String, MetaProp> frozenFlatMap
+    //MetaProp hash uses the Class so dont serialize it
+    private transient Integer frozenHash
+
+    //accessor plans for the MetaMaps keyed by the entity class, built lazily. see accessorFor
+    private transient Map<Class, MetaEntityAccessor> accessors
+
     //if any special converters then can be set here and the MetaMap will get them
     public static Set<MetaMap.Converter> CONVERTERS = [] as Set<MetaMap.Converter>
 
@@ -70,6 +82,7 @@ class MetaEntity extends MetaProp implements Serializable {
      * Filters the props to only the ones that are association and have a nested includes
      */
     Map<String, MetaEntity> getMetaEntityProps(){
+        if(frozen) return frozenEntityProps
         return metaProps.findAll {  it.value instanceof MetaEntity } as Map<String, MetaEntity>
     }
 
@@ -77,9 +90,77 @@ class MetaEntity extends MetaProp implements Serializable {
      * Filters the props to only the ones that dont have nested includes, basic types.
      */
     Set<String> getBasicMetaProps(){
+        if(frozen) return frozenBasicProps
         return metaProps.findAll{ !(it.value instanceof MetaEntity) }.keySet() as Set<String>
     }
 
+    void setMetaProps(Map<String, MetaProp> metaProps) {
+        checkNotFrozen()
+        this.metaProps = metaProps
+    }
+
+    void setIncludes(Set<String> includes) {
+        checkNotFrozen()
+        this.includes = includes
+    }
+
+    void setExcludes(Set<String> excludes) {
+        checkNotFrozen()
+        this.excludes = excludes
+    }
+
+    /**
+     * Converts this and the nested MetaEntity tree to an immutable form so it can be shared across threads
+     * and used as a cache key. The metaProps, includes and excludes become unmodifiable and the
+     * metaEntityProps, basicMetaProps, flatten() and hashCode are computed once up front.
+     * Any attempt to modify after will throw an UnsupportedOperationException.
+     *
+     * @return this
+     */
+    @Override
+    MetaEntity freeze() {
+        if(frozen) return this
+        Map<String, MetaProp> props = new LinkedHashMap<String, MetaProp>(metaProps.size() * 2)
+        Map<String, MetaEntity> entityProps = new LinkedHashMap<String, MetaEntity>()
+        Set<String> basicProps = new LinkedHashSet<String>()
+        for (Map.Entry<String, MetaProp> entry : metaProps.entrySet()) {
+            MetaProp mprop = entry.value?.freeze()
+            props.put(entry.key, mprop)
+            if(mprop instanceof MetaEntity) {
+                entityProps.put(entry.key, (MetaEntity)mprop)
+            } else {
+                basicProps.add(entry.key)
+            }
+        }
+        this.metaProps = Collections.unmodifiableMap(props)
+        this.frozenEntityProps = Collections.unmodifiableMap(entityProps)
+        this.frozenBasicProps = Collections.unmodifiableSet(basicProps)
+        if(includes != null) this.includes = Collections.unmodifiableSet(new LinkedHashSet<String>(includes))
+        if(excludes != null) this.excludes = Collections.unmodifiableSet(new LinkedHashSet<String>(excludes))
+        this.frozenFlatMap = Collections.unmodifiableMap(flatten())
+        super.freeze()
+        return this
+    }
+
+    /**
+     * Gets the cached accessor plan for reading the metaProps from instances of the entityClass.
+     * Built the first time its asked for and rebuilt if the metaProps were modified after.
+     */
+    MetaEntityAccessor accessorFor(Class entityClass) {
+        Map<Class, MetaEntityAccessor> cache = accessors
+        if(cache == null) {
+            //ok if 2 threads race here, worst case one plan gets built twice
+            cache = new ConcurrentHashMap<Class, MetaEntityAccessor>()
+            accessors = cache
+        }
+        MetaEntityAccessor accessor = cache.get(entityClass)
+        if(accessor == null || accessor.isStale(this)) {
+            accessor = new MetaEntityAccessor(entityClass, this)
+            cache.put(entityClass, accessor)
+        }
+        return accessor
+    }
+
     /**
      * gets the class name with out prefix so can lookup the openapi schema
      */
@@ -88,15 +169,19 @@ class MetaEntity extends MetaProp implements Serializable {
     }
 
     void addBlacklist(Set<String> excludeFields) {
+        checkNotFrozen()
         this.excludes = excludeFields
         this.metaProps.keySet().removeAll(excludeFields)
+        accessors = null
     }
 
     /**
      * merges another MetaEntity fields and nested includes
      */
     void merge(MetaEntity toMerge) {
+        checkNotFrozen()
         this.metaProps.putAll(toMerge.metaProps)
+        accessors = null
         // if(toMerge.nestedIncludes) this.nestedIncludes.putAll(toMerge.nestedIncludes)
     }
 
@@ -139,6 +224,7 @@ class MetaEntity extends MetaProp implements Serializable {
     }
 
     Map<String, MetaProp> flatten() {
+        if(frozen) return frozenFlatMap
         Map bmap = toMap() as Map<String, Object>
         Map flatMap = MapFlattener.of(bmap).convertObjectToString(false).convertEmptyStringsToNull(false).flatten()
         return flatMap as Map<String, MetaProp>
@@ -184,6 +270,14 @@ class MetaEntity extends MetaProp implements Serializable {
     }
     @Override
     int hashCode() {
+        if(frozen) {
+            if(frozenHash == null) frozenHash = computeHashCode()
+            return frozenHash
+        }
+        return computeHashCode()
+    }
+
+    protected int computeHashCode() {
         int hashCode = HashCodeHelper.initHash()
         if (className) { hashCode = HashCodeHelper.updateHash(hashCode, className) }
         if (metaProps) { hashCode = HashCodeHelper.updateHash(hashCode, metaProps) }
@@ -0,0 +1,98 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.meta
+
+import groovy.transform.CompileStatic
+
+import yakworks.commons.beans.PropertyGetter
+import yakworks.commons.beans.PropertyTools
+import yakworks.commons.map.CompactMap
+
+/**
+ * Compiled accessor plan for reading the metaProps of a MetaEntity from instances of a specific class.
+ * The prop names, the getters and the nested MetaEntity for each prop are resolved once up front
+ * so a MetaMap.get becomes an index lookup and a getter call instead of a dynamic source[prop] dispatch.
+ *
+ * Not created directly, use {@link MetaEntity#accessorFor(Class)} which caches them.
+ *
+ * @see MetaMap
+ */
+@CompileStatic
+class MetaEntityAccessor {
+
+    /** the class the getters were built for */
+    final Class entityClass
+
+    /** the prop names in order, read only and shared as the default includes for the MetaMaps */
+    final Set<String> keys
+
+    /** the prop names, the index matches the getters */
+    final String[] names
+
+    /** the getter for the prop at the index */
+    final PropertyGetter[] getters
+
+    /** the nested MetaEntity for the prop at the index, null if its a basic prop */
+    final MetaEntity[] nestedEntities
+
+    /** the names and index, shared by the CompactMaps when hydrating compact */
+    final CompactMap.Keys compactKeys
+
+    //built from a frozen MetaEntity, its metaProps cant change so this is never stale
+    private final boolean builtFrozen
+
+    MetaEntityAccessor(Class entityClass, MetaEntity metaEntity) {
+        this.entityClass = entityClass
+        this.builtFrozen = metaEntity.isFrozen()
+        Map<String, MetaProp> metaProps = metaEntity.metaProps
+        int size = metaProps.size()
+        names = new String[size]
+        getters = new PropertyGetter[size]
+        nestedEntities = new MetaEntity[size]
+
+        int i = 0
+        for (Map.Entry<String, MetaProp> entry : metaProps.entrySet()) {
+            String key = entry.key
+            names[i] = key
+            getters[i] = PropertyTools.getPropertyGetter(entityClass, key)
+            if(entry.value instanceof MetaEntity) nestedEntities[i] = (MetaEntity)entry.value
+            i++
+        }
+        compactKeys = new CompactMap.Keys(names)
+        keys = compactKeys.keySet
+    }
+
+    /**
+     * @return the index for the prop name or -1 if its not one of the props
+     */
+    int indexOf(String name) {
+        return compactKeys.indexOf(name)
+    }
+
+    /**
+     * reads the raw value for the prop at index from the source
+     */
+    Object getValue(Object source, int index) {
+        return getters[index].get(source)
+    }
+
+    /**
+     * true if the metaProps were changed after this was built, a prop was added, removed, renamed or reordered
+     * or the nested MetaEntity for a prop was replaced. Always false when built from a frozen MetaEntity.
+     */
+    boolean isStale(MetaEntity metaEntity) {
+        if(builtFrozen) return false
+        Map<String, MetaProp> metaProps = metaEntity.metaProps
+        if(names.length != metaProps.size()) return true
+        int i = 0
+        for (Map.Entry<String, MetaProp> entry : metaProps.entrySet()) {
+            if(names[i] != entry.key) return true
+            MetaEntity nested = entry.value instanceof MetaEntity ? (MetaEntity)entry.value : null
+            if(!nestedEntities[i].is(nested)) return true
+            i++
+        }
+        return false
+    }
+}
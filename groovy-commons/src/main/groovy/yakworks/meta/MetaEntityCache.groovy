@@ -0,0 +1,190 @@
+/*
+* Copyright 2023 original authors
+* SPDX-License-Identifier: Apache-2.0
+*/
+package yakworks.meta
+
+import java.util.concurrent.atomic.LongAdder
+
+import groovy.transform.CompileStatic
+import groovy.transform.EqualsAndHashCode
+
+/**
+ * Bounded concurrent cache for the MetaEntity built from a class and its includes list.
+ * The key is the class, the includes and the effective blacklist, the class's BasicMetaEntityBuilder.BLACKLIST
+ * plus the excludes passed in, so builds that only differ by the blacklist are not shared.
+ * The same entity and includes combos come in on every api call so this saves re-parsing the includes
+ * and walking the metaClass properties each time.
+ *
+ * The returned MetaEntity instances are frozen, see MetaEntity.freeze(), so they can be safely shared between threads.
+ * Its an LRU, when the maxSize is hit the least recently used entry is evicted.
+ * The map is guarded by a lock, the MetaEntity is built outside of it and when two threads build the same one
+ * the first one in is kept and returned to both.
+ *
+ * Example:
+ *   MetaEntity ment = MetaEntityCache.instance.get(Gadget, ['id', 'name', 'thing.name'])
+ *
+ * @since 3.20
+ */
+@CompileStatic
+class MetaEntityCache {
+
+    static final int DEFAULT_MAX_SIZE = 1000
+
+    //BasicMetaEntityBuilder.build returns null if nothing valid in includes, this marks it so its cached too
+    private static final MetaEntity NULL_ENTITY = new MetaEntity()
+
+    // access ordered so the eldest is the least recently used, guarded by synchronizing on it
+    private final LinkedHashMap<CacheKey, MetaEntity> cache
+
+    private final LongAdder hits = new LongAdder()
+    private final LongAdder misses = new LongAdder()
+    private final LongAdder evictions = new LongAdder()
+
+    /** the max number of entries */
+    final int maxSize
+
+    MetaEntityCache() {
+        this(DEFAULT_MAX_SIZE)
+    }
+
+    MetaEntityCache(int maxSize) {
+        this.maxSize = maxSize
+        this.cache = new LinkedHashMap<CacheKey, MetaEntity>(64, 0.75f, true)
+    }
+
+    // see good explanation of thread safe static instance stratgey https://stackoverflow.com/a/16106598/6500859
+    @SuppressWarnings('UnusedPrivateField')
+    private static class Holder {
+        private static final MetaEntityCache INSTANCE = new MetaEntityCache()
+    }
+
+    /**
+     * the default shared cache
+     */
+    static MetaEntityCache getInstance() {
+        return Holder.INSTANCE
+    }
+
+    /**
+     * Gets the MetaEntity for the class and includes, building it with BasicMetaEntityBuilder if its not cached.
+     *
+     * @param clazz the entity class
+     * @param includes the includes list in the dot notation
+     * @return the shared frozen MetaEntity or null if none of the includes were valid
+     */
+    MetaEntity get(Class clazz, List<String> includes) {
+        return get(clazz, includes, null)
+    }
+
+    /**
+     * Gets the MetaEntity for the class, includes and excludes, building it with BasicMetaEntityBuilder if its not cached.
+     *
+     * @param clazz the entity class
+     * @param includes the includes list in the dot notation
+     * @param excludes the fields to blacklist, passed to the BasicMetaEntityBuilder.excludes, can be null
+     * @return the shared frozen MetaEntity or null if none of the includes were valid
+     */
+    MetaEntity get(Class clazz, List<String> includes, List<String> excludes) {
+        CacheKey key = new CacheKey(clazz, includes ? new ArrayList<String>(includes) : ['*'], effectiveBlacklist(clazz, excludes))
+        MetaEntity cached
+        synchronized (cache) {
+            cached = cache.get(key)
+        }
+        if(cached != null) {
+            hits.increment()
+            return unwrap(cached)
+        }
+        misses.increment()
+        MetaEntity metaEntity = BasicMetaEntityBuilder.of(clazz).includes(key.includes).excludes(excludes).build()?.freeze() ?: NULL_ENTITY
+        synchronized (cache) {
+            //another thread may have put it while this one was building, return that one so its shared
+            MetaEntity existing = cache.putIfAbsent(key, metaEntity)
+            if(existing != null) return unwrap(existing)
+            evictIfNeeded()
+        }
+        return unwrap(metaEntity)
+    }
+
+    /**
+     * the blacklist for the class that goes in the key, copied so later changes to the BLACKLIST give a new key
+     */
+    protected static Set<String> effectiveBlacklist(Class clazz, List<String> excludes) {
+        Set<String> blacklist = new HashSet<String>(BasicMetaEntityBuilder.getBlacklist(null))
+        Set<String> classBlacklist = BasicMetaEntityBuilder.BLACKLIST.get(clazz.name)
+        if(classBlacklist) blacklist.addAll(classBlacklist)
+        if(excludes) blacklist.addAll(excludes)
+        return blacklist
+    }
+
+    private static MetaEntity unwrap(MetaEntity metaEntity) {
+        return metaEntity.is(NULL_ENTITY) ? null : metaEntity
+    }
+
+    /**
+     * @see #get(Class, List)
+     */
+    MetaEntity get(String className, List<String> includes) {
+        return get(MetaEntityCache.classLoader.loadClass(className), includes)
+    }
+
+    /**
+     * removes the least recently used entries until its at the maxSize, call while holding the lock
+     */
+    protected void evictIfNeeded() {
+        Iterator<CacheKey> keys = cache.keySet().iterator()
+        while (cache.size() > maxSize && keys.hasNext()) {
+            keys.next()
+            keys.remove()
+            evictions.increment()
+        }
+    }
+
+    int size() {
+        synchronized (cache) {
+            return cache.size()
+        }
+    }
+
+    void clear() {
+        synchronized (cache) {
+            cache.clear()
+        }
+    }
+
+    long getHitCount() {
+        return hits.sum()
+    }
+
+    long getMissCount() {
+        return misses.sum()
+    }
+
+    long getEvictionCount() {
+        return evictions.sum()
+    }
+
+    /**
+     * stats as a map for logging or metrics, [size, maxSize, hits, misses, evictions]
+     */
+    Map<String, Long> getStats() {
+        return [
+            size: size() as Long, maxSize: maxSize as Long,
+            hits: hitCount, misses: missCount, evictions: evictionCount
+        ] as Map<String, Long>
+    }
+
+    @EqualsAndHashCode(useCanEqual=false)
+    @CompileStatic
+    static class CacheKey {
+        final Class clazz
+        final List<String> includes
+        final Set<String> blacklist
+
+        CacheKey(Class clazz, List<String> includes, Set<String> blacklist) {
+            this.clazz = clazz
+            this.includes = includes
+            this.blacklist = blacklist
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.codehaus.groovy.util.HashCodeHelper
 
 import yakworks.commons.lang.ClassUtils
 import yakworks.commons.lang.Validate
+import yakworks.commons.map.CompactMap
 import yakworks.commons.map.Maps
 import yakworks.commons.model.Hydratable
 import yakworks.commons.model.IdEnum
@@ -45,13 +46,17 @@ class MetaMap extends AbstractMap<String, Object> implements Cloneable, Serializ
         'domainClass', 'dirty', 'errors', 'dirtyPropertyNames'
     ]
 
-    //LinkedHashSet so it retains the order
-    private Set<String> _includes = [] as LinkedHashSet<String>
+    //LinkedHashSet so it retains the order. When created with a MetaEntity this is the shared read only keys from the accessor
+    private Set<String> _includes
     // private Map _includeProps = [:] as Map<String, MetaEntity>
 
     MetaEntity metaEntity
 
-    private Map<String, Object> shadowMap = [:]
+    //compiled getters for the metaEntity against the entity class, lazily resolved, see getAccessor
+    private transient MetaEntityAccessor accessor
+
+    //created on first put
+    private Map<String, Object> shadowMap
 
     /**
      * Constructs a new {@code MetaMap} that operates on the specified bean. The given entity
@@ -80,8 +85,8 @@ class MetaMap extends AbstractMap<String, Object> implements Cloneable, Serializ
     private void initialise(MetaEntity metaEntity) {
         if(metaEntity){
             this.metaEntity = metaEntity
-            //Groovy default of LinkedKeySet is not serializable so make a LinkedHashSet
-            _includes = metaEntity.metaProps.keySet() as LinkedHashSet
+            //shares the keys from the accessor, put will copy it into a LinkedHashSet if it needs to add
+            _includes = getAccessor().keys
         }
     }
 
@@ -157,7 +162,14 @@ class MetaMap extends AbstractMap<String, Object> implements Cloneable, Serializ
         String p = name as String
 
         // check to see if the shadow override map has key and return it as is
-        if(shadowMap.containsKey(p)) return shadowMap.get(p)
+        if(shadowMap != null && shadowMap.containsKey(p)) return shadowMap.get(p)
+
+        //fast path, use the compiled getter
+        MetaEntityAccessor acc = getAccessor()
+        if(acc != null) {
+            int idx = acc.indexOf(p)
+            if(idx > -1) return convertValue(acc.getValue(getEntityOrMap(), idx), p, acc.nestedEntities[idx])
+        }
 
         if (!getIncludes().contains(p)) {
             return null
@@ -175,12 +187,54 @@ class MetaMap extends AbstractMap<String, Object> implements Cloneable, Serializ
      * @return the value to use
      */
     Object convertValue(Object source, String prop){
-        Object val = source[prop]
+        MetaProp metaProp = metaEntity?.metaProps?.get(prop)
+        return convertValue(source[prop], prop, metaProp instanceof MetaEntity ? (MetaEntity)metaProp : null)
+    }
+
+    /**
+     * Converts the value that has already been read from the source
+     *
+     * @param val the raw value
+     * @param prop the property name
+     * @param mapIncludes the nested MetaEntity for the prop if it has one
+     * @return the value to use
+     */
+    protected Object convertValue(Object val, String prop, MetaEntity mapIncludes){
         if(val == null) return null
-        Map nestesIncludes = getNestedIncludes()
-        MetaEntity mapIncludes = nestesIncludes[prop]
-        // if its an enum and doesnt have any include field specifed (which it normally should not)
-        if( val.class.isEnum() && !(mapIncludes?.metaProps)) {
+        if(isNestedValue(val, mapIncludes)){
+            //its has its own includes so its either an object or an iterable
+            if(val instanceof Iterable){
+                val = new MetaMapList(val as List, mapIncludes)
+            } else {
+                //assume its an object then
+                val = new MetaMap(val, mapIncludes)
+            }
+        } else {
+            val = convertBasicValue(val, prop)
+        }
+        return val
+    }
+
+    /**
+     * true if the value should be wrapped with the nested MetaEntity.
+     * Enums are not unless the nested MetaEntity specifies fields (which it normally should not)
+     */
+    static boolean isNestedValue(Object val, MetaEntity mapIncludes){
+        if(mapIncludes == null) return false
+        return !(val.getClass().isEnum() && !mapIncludes.metaProps)
+    }
+
+    /**
+     * Converts a value that does not have nested includes.
+     * Enums to their name or an id/name map if its IdEnum, Maps to a MetaMap, and then runs the CONVERTERS.
+     * Used here in get and by the json generators that stream a MetaEntity with out creating MetaMaps.
+     *
+     * @param val the raw value, not null
+     * @param prop the property name for the value
+     * @return the value to use
+     */
+    static Object convertBasicValue(Object val, String prop){
+        if( val.getClass().isEnum() ) {
             if(val instanceof IdEnum){
                 // convert Enums to string or id,name object if its IdEnum
                 Map<String, Object> idEnumMap = [id: (val as IdEnum).id, name: (val as Enum).name()]
@@ -190,21 +244,12 @@ class MetaMap extends AbstractMap<String, Object> implements Cloneable, Serializ
                 val = (val as Enum).name()
             }
         }
-        else if(mapIncludes){
-            //its has its own includes so its either an object or an iterable
-            if(val instanceof Iterable){
-                val = new MetaMapList(val as List, mapIncludes)
-            } else {
-                //assume its an object then
-                val = new MetaMap(val, mapIncludes)
-            }
-        }
         else if(val instanceof Map && !(val instanceof MetaMap)) {
             val = new MetaMap(val)
         }
         // if it has converters then use them. if its already a MetaMap or MetaMapList then it does not need converting.
         else if(MetaEntity.CONVERTERS && !(val instanceof MetaMap) && !(val instanceof MetaMapList)){
-            Converter converter = findConverter(val)
+            Converter converter = findMetaConverter(val)
             if (converter != null) {
                 val = converter.convert(val, prop)
             }
@@ -212,7 +257,6 @@ class MetaMap extends AbstractMap<String, Object> implements Cloneable, Serializ
         return val
     }
 
-
     /**
      * Finds a converter that can handle the given type.  The first converter
      * that reports it can handle the type is returned, based on the order in
@@ -224,6 +268,14 @@ class MetaMap extends AbstractMap<String, Object> implements Cloneable, Serializ
      *         if no compatible converters are found for the given type.
      */
     protected Converter findConverter(Object val) {
+        return findMetaConverter(val)
+    }
+
+    /**
+     * static version of findConverter that looks in the MetaEntity.CONVERTERS
+     * @see #findConverter
+     */
+    static Converter findMetaConverter(Object val) {
         for (Converter c : MetaEntity.CONVERTERS) {
             if (c.handles(val)) {
                 return c
@@ -241,10 +293,70 @@ class MetaMap extends AbstractMap<String, Object> implements Cloneable, Serializ
         if (entityAsMap) return this //already done or its already a map and not entity object
         entityAsMap = Maps.clone(this)
         entity = null
-        shadowMap = [:]
+        shadowMap = null
+        //entity is now a map so getters need to be for it
+        accessor = null
         return this
     }
 
+    /**
+     * Like hydrate but snapshots the values into a read only CompactMap instead of a LinkedHashMap.
+     * When the includes are the defaults from the metaEntity then the key array is shared by all the rows for it,
+     * so each row only costs its values array. Nested MetaMaps and MetaMapLists are snapshotted the same way.
+     * Use for hydrated lists that get held onto, such as in a cache.
+     */
+    MetaMap hydrateCompact() {
+        if (entityAsMap) return this //already done or its already a map and not entity object
+        entityAsMap = toCompactMap()
+        entity = null
+        shadowMap = null
+        accessor = null
+        return this
+    }
+
+    /**
+     * Snapshots the values into a new CompactMap, see hydrateCompact
+     */
+    CompactMap toCompactMap() {
+        Set<String> incs = getIncludes()
+        MetaEntityAccessor acc = getAccessor()
+        //use the shared keys when the includes have not been added to with a put
+        CompactMap.Keys keys = (acc != null && incs.is(acc.keys)) ? acc.compactKeys : CompactMap.Keys.of(incs)
+        String[] names = keys.names
+        Object[] vals = new Object[names.length]
+        for (int i = 0; i < names.length; i++) {
+            vals[i] = compactValue(get(names[i]))
+        }
+        return new CompactMap(keys, vals)
+    }
+
+    /**
+     * deep copies the value for the CompactMap in the same way Maps.clone does
+     */
+    protected static Object compactValue(Object val) {
+        if (val instanceof MetaMap) {
+            return ((MetaMap)val).toCompactMap()
+        }
+        else if (val instanceof CompactMap) {
+            return val //read only so ok to share
+        }
+        else if (val instanceof Map) {
+            return Maps.clone((Map)val)
+        }
+        else if (val instanceof Range) {
+            return val
+        }
+        else if (val instanceof Collection) {
+            Collection coll = (Collection)val
+            List list = new ArrayList(coll.size())
+            for (Object item : coll) {
+                list.add(compactValue(item))
+            }
+            return list
+        }
+        return val
+    }
+
     /**
      * put will not set keys on the wrapped object but allows to add extra props and overrides
      * by using a shadow map to store the values
@@ -252,8 +364,11 @@ class MetaMap extends AbstractMap<String, Object> implements Cloneable, Serializ
     @Override
     Object put(final String name, final Object value) {
         //json-views want to set an object key thats a copy of this so allow it
+        if(shadowMap == null) shadowMap = [:]
         shadowMap.put(name, value)
-        //make sure its in the includes now too
+        //make sure its in the includes now too, copy if its the shared read only keys
+        Set<String> incs = getIncludes()
+        if(!(incs instanceof LinkedHashSet)) _includes = new LinkedHashSet<String>(incs)
         _includes.add(name)
         return getEntityOrMap()[name]
     }
@@ -364,6 +479,16 @@ class MetaMap extends AbstractMap<String, Object> implements Cloneable, Serializ
 
     //------- Helper methods --------
 
+    /**
+     * the compiled accessor plan for the metaEntity and the class of the entity, null if no metaEntity
+     */
+    MetaEntityAccessor getAccessor(){
+        if(accessor == null && metaEntity != null) {
+            accessor = metaEntity.accessorFor(getEntityOrMap().getClass())
+        }
+        return accessor
+    }
+
     Map<String, MetaEntity> getNestedIncludes(){
         return (metaEntity?.metaEntityProps) ?: [:] as Map<String, MetaEntity>
     }
@@ -384,6 +509,7 @@ class MetaMap extends AbstractMap<String, Object> implements Cloneable, Serializ
     Set<String> getIncludes(){
         //if not includes then build defaults from entityAsMap or entity
         if(!_includes){
+            _includes = [] as LinkedHashSet<String>
             if(entityAsMap != null) {
                 def incs = entityAsMap.keySet() //.findAll{ key -> !isExcluded(key as String) }
                 //keySet() is LinkedSet which is not serializable. make it hashSet
@@ -4,6 +4,11 @@
 */
 package yakworks.meta
 
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.Executor
+import java.util.concurrent.ForkJoinPool
+
 import groovy.transform.CompileDynamic
 import groovy.transform.CompileStatic
 
@@ -22,6 +27,11 @@ import yakworks.util.ClassUtils
 @CompileStatic
 class MetaMapList extends AbstractList<MetaMap> implements TotalCount, Serializable, Hydratable {
 
+    /** default number of rows below which hydrate(Executor) stays sequential */
+    public static int PARALLEL_THRESHOLD = 2000
+    /** default number of rows each parallel hydrate task does */
+    public static int PARALLEL_CHUNK_SIZE = 500
+
     protected transient List resultList
     protected List<MetaMap> metaMapList = []
     protected int totalCount = Integer.MIN_VALUE;
@@ -110,6 +120,71 @@ class MetaMapList extends AbstractList<MetaMap> implements TotalCount, Serializa
         return this
     }
 
+    /**
+     * Like hydrate but uses MetaMap.hydrateCompact so each row is a read only CompactMap that shares its keys
+     * with the other rows. Uses a fraction of the heap so its better for lists that get cached.
+     */
+    MetaMapList hydrateCompact() {
+        if (metaMapList) return this //already done
+
+        for(MetaMap val : this){
+            metaMapList.add(val.hydrateCompact())
+        }
+        resultList = null
+
+        return this
+    }
+
+    /**
+     * Hydrate in parallel on the ForkJoinPool.commonPool()
+     * @see #hydrate(Executor, int, int)
+     */
+    MetaMapList hydrateParallel() {
+        return hydrate(ForkJoinPool.commonPool())
+    }
+
+    /**
+     * Hydrates in parallel, splitting the rows into chunks that are hydrated as tasks on the executor.
+     * Order is kept. If the list is smaller than the parallelThreshold then it just calls the normal sequential hydrate().
+     * Only use this when the rows are fully loaded or detached, for example lazy associations on a
+     * Hibernate entity would get loaded from the executor threads and the session is not thread safe.
+     *
+     * @param executor the executor to run on, bound it as needed. ForkJoinPool.commonPool() is a good default.
+     * @param parallelThreshold the row count below which it stays sequential
+     * @param chunkSize the number of rows each task hydrates
+     * @return this
+     */
+    MetaMapList hydrate(Executor executor, int parallelThreshold = PARALLEL_THRESHOLD, int chunkSize = PARALLEL_CHUNK_SIZE) {
+        if (metaMapList) return this //already done
+        if (!resultList || resultList.size() < parallelThreshold) return hydrate()
+
+        // toArray so its random access and its read once on the calling thread
+        final Object[] rows = resultList.toArray()
+        final MetaMap[] hydrated = new MetaMap[rows.length]
+        final MetaEntity ment = metaEntity
+        List<CompletableFuture<Void>> futures = []
+        for (int start = 0; start < rows.length; start += chunkSize) {
+            final int from = start
+            final int to = Math.min(rows.length, start + chunkSize)
+            Runnable task = {
+                for (int i = from; i < to; i++) {
+                    hydrated[i] = new MetaMap(rows[i], ment).hydrate()
+                }
+            } as Runnable
+            futures.add(CompletableFuture.runAsync(task, executor))
+        }
+        try {
+            CompletableFuture.allOf(futures as CompletableFuture[]).join()
+        } catch (CompletionException ex) {
+            //throw the real one
+            throw ex.cause instanceof RuntimeException ? (RuntimeException)ex.cause : ex
+        }
+
+        metaMapList.addAll(Arrays.asList(hydrated))
+        resultList = null
+        return this
+    }
+
 
     /*
      * Method called on serialize.
@@ -45,6 +45,9 @@ class MetaProp implements Serializable {
     /** set to true if should be hidden and not shown on reports or exports */
     Boolean hidden
 
+    /** once frozen the setters will throw an UnsupportedOperationException, see freeze() */
+    protected boolean frozen
+
     MetaProp() {}
 
     MetaProp(Class type) {
@@ -66,16 +69,66 @@ class MetaProp implements Serializable {
     static MetaProp of(String name, Class type){ new MetaProp(name, type)}
 
     String getClassName(){
-        if(!this.className && this.classType) this.className = classType.name
+        if(!this.className && this.classType && !frozen) this.className = classType.name
         return this.className
     }
 
     /** gets title , if no title then uses LabelUtils.getNaturalTitle to create one from name */
     String getTitle(){
-        if(!this.title) this.title = LabelUtils.getNaturalTitle(name)
+        if(!this.title && !frozen) this.title = LabelUtils.getNaturalTitle(name)
         return this.title
     }
 
+    void setName(String name) {
+        checkNotFrozen()
+        this.name = name
+    }
+
+    void setTitle(String title) {
+        checkNotFrozen()
+        this.title = title
+    }
+
+    void setClassType(Class classType) {
+        checkNotFrozen()
+        this.classType = classType
+    }
+
+    void setClassName(String className) {
+        checkNotFrozen()
+        this.className = className
+    }
+
+    void setSchema(Object schema) {
+        checkNotFrozen()
+        this.schema = schema
+    }
+
+    void setHidden(Boolean hidden) {
+        checkNotFrozen()
+        this.hidden = hidden
+    }
+
+    /**
+     * Makes this read only so it can be shared across threads, fills in the lazy className and title first.
+     * @return this
+     */
+    MetaProp freeze() {
+        if(frozen) return this
+        getClassName()
+        if(name) getTitle()
+        frozen = true
+        return this
+    }
+
+    boolean isFrozen() {
+        return frozen
+    }
+
+    protected void checkNotFrozen() {
+        if(frozen) throw new UnsupportedOperationException("${this.getClass().simpleName} is frozen and can not be modified")
+    }
+
     /** check if has a title set */
     boolean hasTitle(){
         return this.title
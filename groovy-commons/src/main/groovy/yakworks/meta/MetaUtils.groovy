@@ -5,9 +5,12 @@
 package yakworks.meta
 
 import java.lang.reflect.Modifier
+import java.util.concurrent.atomic.AtomicReference
 
 import groovy.transform.CompileStatic
 
+import yakworks.commons.beans.PropertyGetters
+
 /**
  * A bunch of helper and lookup/finder statics for dealing with domain classes and PersistentEntity.
  * Useful methods to find the PersistentEntity and the mapping and meta fields.
@@ -28,7 +31,14 @@ class MetaUtils {
      * Get the meta properties for and object but filters out statics and props without a getter
      */
     static List<MetaProperty> getMetaProperties(Class<?> entityClass) {
-        List<MetaProperty> metaProps = entityClass.metaClass.properties
+        return getMetaProperties(entityClass.metaClass)
+    }
+
+    /**
+     * the instance metaProperties from the metaClass, see getMetaProperties(Class)
+     */
+    static List<MetaProperty> getMetaProperties(MetaClass metaClass) {
+        List<MetaProperty> metaProps = metaClass.properties
         List<MetaProperty> filteredProps = metaProps.findAll { MetaProperty mp ->
             !isExcludedProperty(mp)
         }
@@ -47,6 +57,45 @@ class MetaUtils {
         return props
     }
 
+    /**
+     * Same props as getProperties but as prebuilt getters that are cached for the class,
+     * for the hot paths that read the properties for many instances, such as the json generator.
+     * They are rebuilt when the class's metaClass in the registry is not the one they were built from,
+     * same as PropertyTools.getMetaBeanProps.
+     */
+    static PropertyGetters getPropertyGetters(Class<?> entityClass) {
+        AtomicReference<MetaClassGetters> ref = PROPERTY_GETTERS.get(entityClass)
+        MetaClass metaClass = entityClass.metaClass
+        MetaClassGetters mcGetters = ref.get()
+        if (mcGetters == null || !mcGetters.metaClass.is(metaClass)) {
+            mcGetters = new MetaClassGetters(metaClass, PropertyGetters.of(getMetaProperties(metaClass)))
+            ref.set(mcGetters)
+        }
+        return mcGetters.getters
+    }
+
+    private static final ClassValue<AtomicReference<MetaClassGetters>> PROPERTY_GETTERS =
+        new ClassValue<AtomicReference<MetaClassGetters>>() {
+            @Override
+            protected AtomicReference<MetaClassGetters> computeValue(Class<?> type) {
+                return new AtomicReference<MetaClassGetters>()
+            }
+        }
+
+    /**
+     * the PropertyGetters and the metaClass they were built from
+     */
+    @CompileStatic
+    static class MetaClassGetters {
+        final MetaClass metaClass
+        final PropertyGetters getters
+
+        MetaClassGetters(MetaClass metaClass, PropertyGetters getters) {
+            this.metaClass = metaClass
+            this.getters = getters
+        }
+    }
+
     /**
      * used for getProperties to exclude the utility properties that are on a GormEntity.
      */
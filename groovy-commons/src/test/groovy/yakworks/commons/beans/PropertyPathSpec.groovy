@@ -0,0 +1,111 @@
+/*
+* Copyright 2023 Yak.Works - Licensed under the Apache License, Version 2.0 (the "License")
+* You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+*/
+package yakworks.commons.beans
+
+import spock.lang.Specification
+import yakworks.commons.map.Maps
+import yakworks.commons.testing.pogos.Gadget
+
+class PropertyPathSpec extends Specification {
+
+    void "of is cached"() {
+        expect:
+        PropertyPath.of('a.b.c').is(PropertyPath.of('a.b.c'))
+        PropertyPath.of('a.b.c').size() == 3
+        PropertyPath.of('a.b.c').leaf == 'c'
+        PropertyPath.of('a').leaf == 'a'
+    }
+
+    void "getValue mixed objects and maps"() {
+        setup:
+        def obj = Gadget.create(1)
+        obj.nested = Gadget.create(2)
+
+        expect:
+        PropertyPath.of(path).getValue(obj) == exp
+
+        where:
+        exp              | path
+        'Gadget1'        | 'name'
+        'Gadget2'        | 'nested.name'
+        ['rand', 'galt'] | 'nested.stringList'
+        'thingy2'        | 'nested.thing.name'
+        'foo2'           | 'nested.mapData.foo'
+        null             | 'nested.thisDoesNotExist'
+        null             | 'nested.thisDoesNotExist.foo'
+    }
+
+    void "getValue with different classes on the same path"() {
+        setup:
+        PropertyPath path = PropertyPath.of('nested.name')
+        def gadget = Gadget.create(1)
+        gadget.nested = Gadget.create(2)
+
+        expect:
+        path.getValue(gadget) == 'Gadget2'
+        path.getValue([nested: [name: 'map']]) == 'map'
+        path.getValue(new Expando(nested: new Expando(name: 'expando'))) == 'expando'
+        path.getValue(gadget) == 'Gadget2'
+        path.getValue([nested: null]) == null
+    }
+
+    void "getParent"() {
+        setup:
+        Map map = [a: [b: [c: 'bar']]]
+
+        expect:
+        PropertyPath.of('a.b.c').getParent(map) == [c: 'bar']
+        PropertyPath.of('a').getParent(map).is(map)
+        PropertyPath.of('x.y.z').getParent(map) == null
+    }
+
+    void "empty segments are not valid"() {
+        when:
+        PropertyPath.of(path)
+
+        then:
+        thrown(IllegalArgumentException)
+        !PropertyPath.isValid(path)
+
+        where:
+        path << ['', 'a.', '.a', 'a..b']
+    }
+
+    void "empty segments with Maps and getProperty"() {
+        setup:
+        Map map = [a: [b: 1]]
+
+        expect:
+        Maps.remove(map, 'a.') == null
+        !Maps.containsKey(map, 'a.')
+        !Maps.containsKey(map, 'a..b')
+        map == [a: [b: 1]]
+        //getProperty has always skipped them
+        PropertyTools.getProperty(map, 'a.b.') == 1
+    }
+
+    void "metaClass getter override after first use"() {
+        setup:
+        PropertyPath path = PropertyPath.of('bar')
+
+        expect:
+        path.getValue(new MetaBean()) == 'real'
+        PropertyTools.getProperty(new MetaBean(), 'bar') == 'real'
+
+        when:
+        MetaBean.metaClass.getBar = { -> 'meta' }
+
+        then:
+        path.getValue(new MetaBean()) == 'meta'
+        PropertyTools.getProperty(new MetaBean(), 'bar') == 'meta'
+
+        cleanup:
+        GroovySystem.metaClassRegistry.removeMetaClass(MetaBean)
+    }
+
+    static class MetaBean {
+        String bar = 'real'
+    }
+}
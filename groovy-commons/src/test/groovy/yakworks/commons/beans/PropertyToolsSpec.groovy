@@ -16,6 +16,20 @@ class PropertyToolsSpec extends Specification{
         List<Object> traitList
     }
 
+    static interface HasLongs {
+        List<Long> getLongList()
+    }
+
+    static class SubThing extends Thing implements HasLongs {
+        List<Long> getLongList(){ [] }
+    }
+
+    static abstract class AbstractLongs implements HasLongs { }
+
+    static class MetaThing {
+        String name
+    }
+
     static class Thing implements ThingTrait{
         List<Map> mapList
         List<String> stringList
@@ -131,6 +145,16 @@ class PropertyToolsSpec extends Specification{
         'traitList'  | java.lang.String
     }
 
+    void "findGenericTypeForCollection on superclass and interface"() {
+        expect:
+        PropertyTools.findGenericTypeForCollection(SubThing, 'mapList') == Map
+        PropertyTools.findGenericTypeForCollection(SubThing, 'longList') == Long
+        PropertyTools.findGenericTypeForCollection(AbstractLongs, 'longList') == Long
+        PropertyTools.findGenericTypeForCollection(SubThing, 'nope') == Object
+        //cached
+        PropertyTools.findGenericTypeForCollection(SubThing, 'longList') == Long
+    }
+
     void "set setValue with path"() {
         when:
         def user = new BeanToolsSpec.AdminUser()
@@ -142,4 +166,56 @@ class PropertyToolsSpec extends Specification{
         user.thing.name == "foo"
     }
 
+    void "getPropertyGetter"() {
+        when:
+        def gadget = new Gadget(name: "foo", enabled: true)
+        def expando = new Expando(name: "bar")
+
+        then:
+        PropertyTools.getPropertyGetter(Gadget, 'name').get(gadget) == 'foo'
+        PropertyTools.getPropertyGetter(Gadget, 'enabled').get(gadget) == true
+        PropertyTools.getPropertyGetter(Gadget, 'staticProp').get(gadget) == 'foo'
+        PropertyTools.getPropertyGetter(Map, 'name').get([name: 'baz']) == 'baz'
+        //custom getProperty goes through the MOP
+        PropertyTools.hasCustomGetProperty(Expando)
+        !PropertyTools.hasCustomGetProperty(Gadget)
+        PropertyTools.getPropertyGetter(Expando, 'name').get(expando) == 'bar'
+    }
+
+    void "getPropertyGetter missing prop"() {
+        when:
+        PropertyTools.getPropertyGetter(Gadget, 'nope').get(new Gadget())
+
+        then:
+        thrown(MissingPropertyException)
+    }
+
+    void "getMetaBeanProp"() {
+        expect:
+        PropertyTools.getMetaBeanProp(Gadget, 'name').name == 'name'
+        PropertyTools.getMetaBeanProp(Gadget, 'name').is(PropertyTools.getMetaBeanProp(Gadget, 'name'))
+        PropertyTools.getMetaBeanProp(Gadget, 'nope') == null
+        PropertyTools.getPropertyReturnType(Gadget, 'name') == String
+    }
+
+    void "getMetaBeanProp rebuilds when metaClass is replaced"() {
+        when:
+        def original = PropertyTools.getMetaBeanProps(MetaThing)
+
+        then:
+        original.containsKey('name')
+        !original.containsKey('added')
+
+        when:
+        MetaThing.metaClass.getAdded = { -> 'added' }
+
+        then:
+        PropertyTools.getMetaBeanProp(MetaThing, 'added')
+        PropertyTools.getMetaBeanProp(MetaThing, 'name')
+
+        cleanup:
+        GroovySystem.metaClassRegistry.removeMetaClass(MetaThing)
+        PropertyTools.clearMetaBeanProps(MetaThing)
+    }
+
 }
@@ -0,0 +1,93 @@
+package yakworks.commons.io
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.zip.Deflater
+import java.util.zip.GZIPInputStream
+
+import spock.lang.Specification
+
+class GzipCodecSpec extends Specification {
+
+    byte[] sampleBytes(int size) {
+        StringBuilder sb = new StringBuilder()
+        int i = 0
+        while (sb.length() < size) sb.append("row ${i++} some text to compress\n")
+        return sb.toString().getBytes('UTF-8')
+    }
+
+    byte[] gunzip(byte[] bytes) {
+        new GZIPInputStream(new ByteArrayInputStream(bytes)).bytes
+    }
+
+    void "compress and decompress"() {
+        when:
+        byte[] data = sampleBytes(50_000)
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream()
+        GzipCodec codec = new GzipCodec().level(Deflater.BEST_SPEED).bufferSize(1024)
+        codec.compress(bytesOut).withStream { it.write(data) }
+
+        then:
+        codec.extension == '.gz'
+        bytesOut.size() < data.length
+        gunzip(bytesOut.toByteArray()) == data
+        codec.decompress(new ByteArrayInputStream(bytesOut.toByteArray())).bytes == data
+    }
+
+    void "level is set on the deflater"() {
+        when:
+        byte[] data = sampleBytes(50_000)
+        def fast = new ByteArrayOutputStream()
+        def none = new ByteArrayOutputStream()
+        GzipCodec.gzipStream(fast, Deflater.BEST_SPEED, 512).withStream { it.write(data) }
+        GzipCodec.gzipStream(none, Deflater.NO_COMPRESSION, 512).withStream { it.write(data) }
+
+        then:
+        none.size() > data.length
+        fast.size() < data.length
+    }
+
+    void "parallel blocks are concatenated members"() {
+        setup:
+        ExecutorService executor = Executors.newFixedThreadPool(3)
+
+        when:
+        byte[] data = sampleBytes(100_000)
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream()
+        GzipCodec codec = new GzipCodec().parallel(true).blockSize(8192).executor(executor).maxInFlight(2)
+        OutputStream out = codec.compress(bytesOut)
+        //mix of single byte and array writes that cross the blocks
+        out.write(data, 0, 10)
+        data[10..<20].each { out.write(it as int) }
+        out.write(data, 20, data.length - 20)
+        out.close()
+
+        then:
+        out instanceof ParallelGzipOutputStream
+        gunzip(bytesOut.toByteArray()) == data
+        codec.decompress(new ByteArrayInputStream(bytesOut.toByteArray())).bytes == data
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    void "parallel with nothing written is still valid gzip"() {
+        when:
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream()
+        new ParallelGzipOutputStream(bytesOut, 1024, Deflater.DEFAULT_COMPRESSION, null, 0).close()
+
+        then:
+        bytesOut.size() > 0
+        gunzip(bytesOut.toByteArray()).length == 0
+    }
+
+    void "write after close fails"() {
+        when:
+        def out = new ParallelGzipOutputStream(new ByteArrayOutputStream(), 1024, Deflater.DEFAULT_COMPRESSION, null, 0)
+        out.close()
+        out.write(1)
+
+        then:
+        thrown(IOException)
+    }
+}
@@ -0,0 +1,67 @@
+/*
+* Copyright 2023 Yak.Works - Licensed under the Apache License, Version 2.0 (the "License")
+* You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+*/
+package yakworks.commons.map
+
+import org.springframework.util.SerializationUtils
+
+import spock.lang.Specification
+
+class CompactMapSpec extends Specification {
+
+    void "basics"() {
+        when:
+        def keys = CompactMap.Keys.of(['id', 'name', 'nada'])
+        def map = new CompactMap(keys, [1, 'foo', null] as Object[])
+
+        then:
+        map.size() == 3
+        map == [id: 1, name: 'foo', nada: null]
+        [id: 1, name: 'foo', nada: null] == map
+        map.keySet() as List == ['id', 'name', 'nada']
+        map.values() as List == [1, 'foo', null]
+        map.containsKey('nada')
+        !map.containsKey('bar')
+        map.get('bar') == null
+        map.name == 'foo'
+        map.valueAt(0) == 1
+    }
+
+    void "read only"() {
+        when:
+        def map = new CompactMap(CompactMap.Keys.of(['id']), [1] as Object[])
+        action(map)
+
+        then:
+        thrown(UnsupportedOperationException)
+
+        where:
+        action << [
+            { Map m -> m.put('id', 2) },
+            { Map m -> m.remove('id') },
+            { Map m -> m.clear() },
+            { Map m -> m.keySet().remove('id') },
+            { Map m -> m.entrySet().first().setValue(2) }
+        ]
+    }
+
+    void "values must match keys"() {
+        when:
+        new CompactMap(CompactMap.Keys.of(['id', 'name']), [1] as Object[])
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    void "serialize keeps shared keys"() {
+        when:
+        def keys = CompactMap.Keys.of(['id', 'name'])
+        List rows = [new CompactMap(keys, [1, 'foo'] as Object[]), new CompactMap(keys, [2, 'bar'] as Object[])]
+        List<CompactMap> deserial = SerializationUtils.deserialize(SerializationUtils.serialize(rows)) as List<CompactMap>
+
+        then:
+        deserial == rows
+        deserial[0].getKeys().is(deserial[1].getKeys())
+    }
+}
@@ -129,4 +129,39 @@ class MapFlattenerSpec extends Specification {
         res.'customer.amount' instanceof BigDecimal
 
     }
+
+    void "test reuse for rows"() {
+        setup:
+        MapFlattener flattener = new MapFlattener().convertObjectToString(true)
+        List<Map> rows = [
+            [id: 1, customer: [id: 10, name: ' bill '], tags: ['a', 'b']],
+            [id: 2, customer: [id: '', name: 'bob'], tags: ['c']],
+            [id: 3, customer: [name: 'sue', extra: [x: 1]], tags: []]
+        ]
+
+        when:
+        List<Map> res = rows.collect { flattener.flatten(it) }
+
+        then:
+        res[0] == [id: '1', 'customer.id': '10', 'customer.name': 'bill', tags: ['a', 'b'], 'tags.0': 'a', 'tags.1': 'b']
+        res[1] == [id: '2', 'customer.id': 'null', 'customer.name': 'bob', tags: ['c'], 'tags.0': 'c']
+        res[2] == [id: '3', 'customer.name': 'sue', 'customer.extra.x': '1']
+        //same key instances across rows
+        res[0].keySet()[1].is(res[1].keySet()[1])
+    }
+
+    void "test flatten root list"() {
+        when:
+        Map res = new MapFlattener().flatten([[id: 1], 'x', null])
+
+        then:
+        res == ['': [[id: 1], 'x', null], '.0.id': 1, '.1': 'x', '.2': null]
+    }
+
+    void "test transformMap with name"() {
+        expect:
+        mapFlattener.transformMap([id: null, name: 'foo', tags: [1]], 'thing') ==
+            ['thing.id': 'null', 'thing.name': 'foo', 'thing.tags': [1], 'thing.tags.0': '1']
+        mapFlattener.transformMap([:], 'thing') == [:]
+    }
 }
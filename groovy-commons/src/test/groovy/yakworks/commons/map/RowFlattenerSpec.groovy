@@ -0,0 +1,83 @@
+/*
+* Copyright 2023 Yak.Works - Licensed under the Apache License, Version 2.0 (the "License")
+* You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+*/
+package yakworks.commons.map
+
+import java.time.LocalDate
+
+import spock.lang.Specification
+import yakworks.commons.testing.pogos.Gadget
+import yakworks.meta.BasicMetaEntityBuilder
+import yakworks.meta.MetaEntity
+
+class RowFlattenerSpec extends Specification {
+
+    List<Map> rows() {
+        return [
+            [id: 1, name: ' bill ', customer: [id: 10, name: 'acme'], tags: ['a', 'b'], date: LocalDate.parse('2021-02-01')],
+            [id: 2, name: '', customer: [id: '', name: 'bob'], tags: ['c']],
+            [id: 3, name: 'sue', customer: [name: 'sue co', extra: [x: 1]], tags: []]
+        ]
+    }
+
+    void "learned columns match MapFlattener"() {
+        setup:
+        RowFlattener rowFlattener = new RowFlattener().convertObjectToString(true)
+
+        when:
+        List<Object[]> result = rowFlattener.flatten(rows().iterator()).toList()
+        String[] header = rowFlattener.header
+
+        then:
+        header as List == ['id', 'name', 'customer.id', 'customer.name', 'tags', 'tags.0', 'tags.1', 'date', 'customer.extra.x']
+        result.size() == 3
+        rows().eachWithIndex { Map row, int i ->
+            Map flat = MapFlattener.of(row).convertObjectToString(true).flatten()
+            assert result[i] as List == header.collect { flat[it] }
+        }
+        result[0] as List == ['1', 'bill', '10', 'acme', ['a', 'b'], 'a', 'b', '2021-02-01', null]
+        result[1] as List == ['2', null, 'null', 'bob', ['c'], 'c', null, null, null]
+    }
+
+    void "sampleSize only learns from the first rows"() {
+        when:
+        RowFlattener rowFlattener = new RowFlattener().sampleSize(1)
+        List<Object[]> result = rowFlattener.flatten(rows().iterator()).toList()
+
+        then:
+        rowFlattener.header as List == ['id', 'name', 'customer.id', 'customer.name', 'tags', 'tags.0', 'tags.1', 'date']
+        result.size() == 3
+        result[2] as List == [3, 'sue', null, 'sue co', null, null, null, null]
+    }
+
+    void "set columns"() {
+        when:
+        RowFlattener rowFlattener = RowFlattener.of(['customer.name', 'tags.1', 'nope.id'])
+
+        then:
+        rowFlattener.flattenRow(rows()[0]) as List == ['acme', 'b', null]
+        rowFlattener.flattenRow([customer: null, nope: [id: null]]) as List == [null, null, 'null']
+    }
+
+    void "columns from MetaEntity with objects"() {
+        setup:
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, ['id', 'name', 'thing.name'])
+        def gadget = Gadget.create(1)
+
+        when:
+        RowFlattener rowFlattener = RowFlattener.of(ment)
+
+        then:
+        rowFlattener.header as List == ['id', 'name', 'thing.name']
+        rowFlattener.flattenRow(gadget) as List == [1, 'Gadget1', 'thingy1']
+    }
+
+    void "flattenRow with out columns"() {
+        when:
+        new RowFlattener().flattenRow([id: 1])
+
+        then:
+        thrown(IllegalStateException)
+    }
+}
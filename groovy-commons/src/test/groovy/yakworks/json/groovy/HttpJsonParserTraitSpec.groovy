@@ -4,6 +4,11 @@
 */
 package yakworks.json.groovy
 
+import javax.servlet.http.HttpServletRequest
+
+import groovy.json.JsonParserType
+import groovy.json.JsonSlurper
+
 import org.springframework.mock.web.MockHttpServletRequest
 import spock.lang.Specification
 
@@ -100,6 +105,123 @@ class HttpJsonParserTraitSpec extends Specification implements HttpJsonParserTra
         e.message.contains('Json parsing expected a List')
     }
 
+    void "small bodies are buffered and stats are set"() {
+        when:
+        def request = createMockRequest(sampleJson)
+        Map data = parseJson(request, Map)
+        JsonParseStats stats = (JsonParseStats)request.getAttribute(JsonBodyParser.STATS_ATTRIBUTE)
+
+        then:
+        data.nested == [foo: 'bar']
+        stats.bodySize == sampleJson.getBytes('UTF-8').length
+        stats.parserType == JsonParserType.CHAR_BUFFER
+        !stats.streamed
+        stats.elapsedNanos > 0
+    }
+
+    void "large and chunked bodies are streamed"() {
+        setup:
+        List<JsonParseStats> parsed = []
+        def listener = { HttpServletRequest req, JsonParseStats stats -> parsed << stats } as JsonParseListener
+        def parser = new JsonBodyParser().streamingThreshold(100).listener(listener)
+        String json = JsonEngine.toJson((1..50).collect { [id: it, name: "näme$it"] })
+
+        when:
+        List data = parser.parse(createMockRequest(json)) as List
+
+        then:
+        data.size() == 50
+        data[49] == [id: 50, name: 'näme50']
+        parsed[0].streamed
+        parsed[0].parserType == JsonParserType.CHARACTER_SOURCE
+        parsed[0].bodySize == json.getBytes('UTF-8').length
+
+        when: 'no content length'
+        def request = new MockHttpServletRequest() {
+            @Override
+            long getContentLengthLong() { return -1 }
+        }
+        request.setContent(sampleJson.getBytes('UTF-8'))
+        Map mapData = new JsonBodyParser().listener(listener).parse(request) as Map
+
+        then:
+        mapData.name == 'Logan'
+        parsed[1].streamed
+    }
+
+    void "body over maxBodySize fails"() {
+        when: 'content length is known'
+        new JsonBodyParser().maxBodySize(10).parse(createMockRequest(sampleJson))
+
+        then:
+        JsonBodyTooLargeException ex = thrown()
+        ex.message.contains('more than the max of 10')
+        ex.maxBodySize == 10
+
+        when: 'no content length'
+        def request = new MockHttpServletRequest() {
+            @Override
+            long getContentLengthLong() { return -1 }
+        }
+        request.setContent(sampleJson.getBytes('UTF-8'))
+        new JsonBodyParser().maxBodySize(10).parse(request)
+
+        then:
+        thrown(JsonBodyTooLargeException)
+    }
+
+    void "no size limit by default"() {
+        when:
+        String json = JsonEngine.toJson((1..100).collect { [id: it, name: "name$it"] })
+        List data = new JsonBodyParser().streamingThreshold(100).parse(createMockRequest(json)) as List
+
+        then:
+        new JsonBodyParser().maxBodySize == 0
+        data.size() == 100
+    }
+
+    void "small bodies use the passed in slurper settings"() {
+        setup:
+        def slurper = new JsonSlurper().setType(JsonParserType.LAX)
+        def request = createMockRequest('{name: Logan, nested: {foo: bar}}')
+
+        when:
+        Map data = new JsonBodyParser().parse(request, slurper) as Map
+
+        then:
+        data.name == 'Logan'
+        (request.getAttribute(JsonBodyParser.STATS_ATTRIBUTE) as JsonParseStats).parserType == JsonParserType.LAX
+    }
+
+    void "index overlay for small bodies"() {
+        when:
+        def parser = new JsonBodyParser().smallParserType(JsonParserType.INDEX_OVERLAY)
+        def request = createMockRequest(sampleJson)
+        Map data = parser.parse(request) as Map
+
+        then:
+        data.name == 'Logan'
+        data.brothers == ["Wy Guy", "Goobie"]
+        (request.getAttribute(JsonBodyParser.STATS_ATTRIBUTE) as JsonParseStats).parserType == JsonParserType.INDEX_OVERLAY
+    }
+
+    void "default JsonBodyParser is read only"() {
+        when:
+        JsonBodyParser.getDefault().maxBodySize(10)
+
+        then:
+        thrown(UnsupportedOperationException)
+
+        when:
+        JsonBodyParser.getDefault().listener = Mock(JsonParseListener)
+
+        then:
+        thrown(UnsupportedOperationException)
+        JsonBodyParser.getDefault().maxBodySize == 0
+        JsonBodyParser.getDefault().listener == null
+        getJsonBodyParser().is(JsonBodyParser.getDefault())
+    }
+
     MockHttpServletRequest createMockRequest(String content){
         MockHttpServletRequest request = new MockHttpServletRequest()
         request.setContentType('application/json; charset=UTF-8')
@@ -107,4 +229,5 @@ class HttpJsonParserTraitSpec extends Specification implements HttpJsonParserTra
         return request
     }
 
+
 }
@@ -9,9 +9,16 @@ import java.time.LocalDate
 import java.time.LocalDateTime
 
 import groovy.json.JsonException
+import groovy.json.JsonGenerator
+import groovy.json.JsonParserType
+import groovy.json.JsonSlurper
 
 import spock.lang.Specification
+import yakworks.commons.testing.pogos.Gadget
 import yakworks.commons.testing.pogos.Thing
+import yakworks.json.groovy.converters.CurrencyConverter
+import yakworks.json.groovy.converters.LocalDateJsonConverter
+import yakworks.meta.MetaUtils
 
 /**
  * sanity checks for streaming to a file
@@ -127,4 +134,150 @@ class JsonEngineSpec extends Specification {
         jsonStr
         jsonStr.contains("text1")
     }
+
+    void "service converters are cached"() {
+        expect:
+        JsonEngine.serviceConverters.is(JsonEngine.serviceConverters)
+        new JsonEngine().converters.size() == JsonEngine.serviceConverters.size() + 10
+    }
+
+    void "converter metrics"() {
+        setup:
+        JsonEngine engine = new JsonEngine().build()
+        def metrics = new ConverterMetrics()
+        ((EnhancedJsonGenerator)engine.jsonGenerator).converterListener = metrics
+
+        when:
+        String res = engine.jsonGenerator.toJson([generateData(1), generateData(2)])
+
+        then:
+        res.startsWith('[{"num":"1","inactive":false,"amount":0.00,"localDate":"2021-02-01",')
+        metrics.getCount(LocalDateJsonConverter) == 2
+        metrics.getCount(CurrencyConverter) == 2
+        metrics.counts[LocalDateJsonConverter.name] == 2
+
+        when:
+        metrics.reset()
+
+        then:
+        metrics.counts.isEmpty()
+    }
+
+    void "objects are written same as their properties map"() {
+        when:
+        Gadget gadget = Gadget.create(1)
+        gadget.nested = Gadget.create(2)
+        String res = JsonEngine.toJson(gadget)
+
+        then:
+        res == JsonEngine.toJson(MetaUtils.getProperties(gadget))
+        res.contains('"thing":{"name":"thingy1"}')
+        !res.contains('staticProp')
+        MetaUtils.getPropertyGetters(Gadget).is(MetaUtils.getPropertyGetters(Gadget))
+    }
+
+    void "objects with nulls and excluded field names"() {
+        setup:
+        def opts = new JsonGenerator.Options().excludeFieldsByName('name')
+        def generator = new EnhancedJsonGenerator(opts)
+
+        when:
+        String res = generator.toJson(Thing.of(1, 'joe'))
+
+        then:
+        res == generator.toJson(MetaUtils.getProperties(Thing.of(1, 'joe')))
+        res.contains('"id":1')
+        res.contains('"localDate":null')
+        !res.contains('name')
+        JsonEngine.toJson(new Thing()) == '{}'
+    }
+
+    void "getObjectProperties override is used for objects"() {
+        when:
+        def generator = new PropsGenerator(new JsonGenerator.Options())
+
+        then:
+        generator.toJson(Thing.of(1, 'joe')) == '{"custom":true}'
+        generator.toJson([thing: Thing.of(1, 'joe')]) == '{"thing":{"custom":true}}'
+        !generator.usePropertyGetters
+        new EnhancedJsonGenerator(new JsonGenerator.Options()).usePropertyGetters
+    }
+
+    void "metaClass getter override after first use"() {
+        setup:
+        def generator = new EnhancedJsonGenerator(new JsonGenerator.Options())
+
+        expect:
+        generator.toJson(new MetaBean()) == '{"bar":"real"}'
+
+        when:
+        MetaBean.metaClass.getBar = { -> 'meta' }
+
+        then:
+        generator.toJson(new MetaBean()) == '{"bar":"meta"}'
+
+        cleanup:
+        GroovySystem.metaClassRegistry.removeMetaClass(MetaBean)
+    }
+
+    void "slurper settings"() {
+        when:
+        JsonSlurper slurper = new JsonEngine().parserType(JsonParserType.LAX).chop(true).lazyChop(false).maxSizeForInMemory(1000)
+            .pooledSlurper(true).build().jsonSlurper
+
+        then:
+        slurper instanceof PooledJsonSlurper
+        slurper.type == JsonParserType.LAX
+        slurper.chop
+        !slurper.lazyChop
+        slurper.maxSizeForInMemory == 1000
+        slurper.parseText('{name: "lax", /* comment */ id: 1}') == [name: 'lax', id: 1]
+
+        expect:
+        //pooled is opt in
+        JsonEngine.slurper.class == JsonSlurper
+        JsonEngine.slurper.type == JsonParserType.CHAR_BUFFER
+        new JsonEngine().build().jsonSlurper.class == JsonSlurper
+    }
+
+    void "toBytes and writeTo are UTF-8 same as toJson"() {
+        when: 'big enough to go over the encode blocks with multi byte chars and surrogate pairs'
+        List data = (1..500).collect { [id: it, name: "nämé \uD83D\uDE00 $it", thing: Thing.of(it, 'joe')] }
+        String json = JsonEngine.toJson(data)
+        ByteArrayOutputStream out = new ByteArrayOutputStream()
+        JsonEngine.writeTo(data, out)
+
+        then:
+        JsonEngine.toBytes(data) == json.getBytes('UTF-8')
+        out.toByteArray() == json.getBytes('UTF-8')
+        //buffer is reused and still right after
+        JsonEngine.toBytes([a: 1]) == '{"a":1}'.bytes
+        JsonEngine.toBytes(null) == 'null'.bytes
+        new String(JsonEngine.toBytes([a: null], false), 'UTF-8') == '{"a":null}'
+    }
+
+    void "big buffers are not kept on the thread"() {
+        when:
+        String big = 'x' * (GroovyJsonBackend.MAX_RETAINED_CHARS + 10)
+        byte[] bytes = JsonEngine.toBytes([big: big])
+
+        then:
+        bytes.length == big.length() + 10
+        GroovyJsonBackend.CHAR_BUFFER.get().readForRecycle().length <= GroovyJsonBackend.MAX_RETAINED_CHARS
+    }
+
+    static class PropsGenerator extends EnhancedJsonGenerator {
+        PropsGenerator(JsonGenerator.Options options) {
+            super(options)
+        }
+
+        @Override
+        protected Map<?, ?> getObjectProperties(Object object) {
+            return [custom: true]
+        }
+    }
+
+    static class MetaBean {
+        String bar = 'real'
+    }
 }
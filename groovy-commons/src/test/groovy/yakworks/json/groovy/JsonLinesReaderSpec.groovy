@@ -0,0 +1,122 @@
+/*
+* Copyright 2023 Yak.Works - Licensed under the Apache License, Version 2.0 (the "License")
+* You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+*/
+package yakworks.json.groovy
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.stream.Collectors
+
+import groovy.json.JsonException
+
+import spock.lang.Specification
+import yakworks.commons.util.BuildSupport
+
+class JsonLinesReaderSpec extends Specification {
+
+    List<Map> generateRows(int count) {
+        (1..count).collect { [id: it, name: "name$it", tags: ['a', 'b']] } as List<Map>
+    }
+
+    void "writeLines and read back"() {
+        when:
+        def rows = generateRows(100)
+        StringWriter writer = new StringWriter()
+        JsonStreamStats stats = new JsonStreaming().bufferSize(128).writeLines(rows, writer)
+        String text = writer.toString()
+
+        then:
+        stats.rows == 100
+        text.startsWith('{"id":1,"name":"name1","tags":["a","b"]}\n{"id":2,')
+        text.endsWith('{"id":100,"name":"name100","tags":["a","b"]}\n')
+
+        when:
+        List read = JsonLinesReader.of(new StringReader(text)).collect()
+
+        then:
+        read == rows
+    }
+
+    void "file round trip with stream"() {
+        when:
+        Path path = Paths.get(BuildSupport.projectDir, "build/lines.ndjson")
+        Files.deleteIfExists(path)
+        JsonStreamStats stats = new JsonStreaming().writeLines(generateRows(1000).iterator(), path)
+        List<Object> read
+        JsonLinesReader.of(path).stream().withCloseable {
+            read = it.collect(Collectors.toList())
+        }
+
+        then:
+        stats.bytes == Files.size(path)
+        read.size() == 1000
+        read[999] == [id: 1000, name: "name1000", tags: ['a', 'b']]
+    }
+
+    void "blank lines are skipped and errors have line number"() {
+        when:
+        def reader = JsonLinesReader.of(new StringReader('{"id":1}\n\n  \n{"id":2}\n{"id":\n'))
+        Iterator iter = reader.iterator()
+
+        then:
+        iter.next() == [id: 1]
+        iter.next() == [id: 2]
+        iter.hasNext()
+
+        when:
+        iter.next()
+
+        then:
+        JsonException ex = thrown()
+        ex.message.startsWith('Invalid json on line 5')
+    }
+
+    void "can only iterate once"() {
+        when:
+        def reader = JsonLinesReader.of(new StringReader('1\n2'))
+        reader.iterator()
+        reader.iterator()
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    void "forEachParallel"() {
+        setup:
+        ExecutorService executor = Executors.newFixedThreadPool(4)
+        StringWriter writer = new StringWriter()
+        new JsonStreaming().writeLines(generateRows(500), writer)
+        def results = new ConcurrentLinkedQueue<Integer>()
+
+        when:
+        long count = JsonLinesReader.of(new StringReader(writer.toString())).forEachParallel(executor, 4) { Object row ->
+            results.add((row as Map).id as Integer)
+        }
+
+        then:
+        count == 500
+        results.sort() == (1..500).toList()
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    void "forEachParallel rethrows the error"() {
+        setup:
+        ExecutorService executor = Executors.newFixedThreadPool(2)
+
+        when:
+        JsonLinesReader.of(new StringReader('1\n2\n{bad\n4')).forEachParallel(executor, 2) { Object row -> }
+
+        then:
+        thrown(JsonException)
+
+        cleanup:
+        executor.shutdown()
+    }
+}
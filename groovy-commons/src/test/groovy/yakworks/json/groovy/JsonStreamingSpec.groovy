@@ -9,11 +9,16 @@ import java.nio.file.Path
 import java.nio.file.Paths
 import java.time.LocalDate
 import java.time.LocalDateTime
+import java.util.stream.IntStream
+import java.util.zip.GZIPInputStream
 
+import groovy.json.JsonGenerator
 import groovy.json.StreamingJsonBuilder
 
 import org.codehaus.groovy.runtime.DefaultGroovyMethodsSupport
 import spock.lang.Specification
+import yakworks.commons.io.GzipCodec
+import yakworks.commons.io.StreamCodec
 import yakworks.commons.lang.IsoDateUtil
 import yakworks.commons.util.BuildSupport
 
@@ -203,4 +208,123 @@ class JsonStreamingSpec extends Specification implements JsonEngineTrait {
         Files.exists(path)
         path.getText().contains('"ok":true,"status":"foo"')
     }
+
+    void "writeArray iterator to writer"() {
+        when:
+        def dataList = generateDataList(50)
+        StringWriter writer = new StringWriter()
+        JsonStreamStats stats = new JsonStreaming().bufferSize(256).writeArray(dataList.iterator(), writer)
+
+        then:
+        writer.toString() == JsonEngine.toJson(dataList)
+        stats.rows == 50
+        stats.chars == writer.toString().length()
+        stats.bytes == -1
+    }
+
+    void "writeArray stream and spliterator"() {
+        when:
+        StringWriter writer1 = new StringWriter()
+        StringWriter writer2 = new StringWriter()
+        def dataList = generateDataList(5)
+        def jstream = new JsonStreaming()
+        jstream.writeArray(dataList.stream(), writer1)
+        jstream.writeArray(dataList.spliterator(), writer2)
+
+        then:
+        writer1.toString() == JsonEngine.toJson(dataList)
+        writer2.toString() == writer1.toString()
+    }
+
+    void "writeArray lazy rows to OutputStream"() {
+        when: "rows are generated as they are pulled so never all in memory"
+        def rows = IntStream.rangeClosed(1, 10000).mapToObj{ [id: it, name: "näme$it"] }
+        ByteArrayOutputStream out = new ByteArrayOutputStream()
+        JsonStreamStats stats = new JsonStreaming().writeArray(rows, out)
+        String json = out.toString('UTF-8')
+
+        then:
+        stats.rows == 10000
+        stats.bytes == out.size()
+        stats.chars == json.length()
+        stats.bytes > stats.chars
+        json.startsWith('[{"id":1,"name":"näme1"},{"id":2,')
+        json.endsWith('{"id":10000,"name":"näme10000"}]')
+    }
+
+    void "writeArray empty and nulls"() {
+        expect:
+        write([]) == '[]'
+        write([null, 1, 'foo']) == '[null,1,"foo"]'
+        write([], true) == '[\n]'
+        write([1, 2], true) == '[\n1,\n2\n]'
+    }
+
+    void "writeArray gzip to file"() {
+        when:
+        Path path = getJsonFile('streamed.json.gz')
+        Files.deleteIfExists(path)
+        def rows = (1..2000).collect { [id: it, name: "näme$it"] }
+        JsonStreamStats stats = new JsonStreaming().gzip().writeArray(rows.iterator(), path)
+        String json = new GZIPInputStream(Files.newInputStream(path)).getText('UTF-8')
+
+        then:
+        stats.rows == 2000
+        stats.bytes == Files.size(path)
+        stats.bytes < stats.chars
+        json == JsonEngine.toJson(rows)
+    }
+
+    void "writeLines with parallel gzip leaves stream open"() {
+        when:
+        def rows = (1..2000).collect { [id: it, name: "name$it"] }
+        ByteArrayOutputStream out = new ByteArrayOutputStream()
+        def codec = new GzipCodec().parallel(true).blockSize(4096)
+        JsonStreamStats stats = new JsonStreaming().codec(codec).writeLines(rows, out)
+        //still open so can write after it
+        out.write('x'.bytes)
+
+        then:
+        stats.bytes == out.size() - 1
+        JsonLinesReader.of(codec.decompress(new ByteArrayInputStream(out.toByteArray(), 0, out.size() - 1))).collect() == rows
+    }
+
+    void "codec stream is closed when the write fails"() {
+        setup:
+        int closed = 0
+        StreamCodec trackingCodec = new GzipCodec() {
+            @Override
+            OutputStream compress(OutputStream out) {
+                return new FilterOutputStream(super.compress(out)) {
+                    @Override
+                    void close() throws IOException {
+                        closed++
+                        super.close()
+                    }
+                }
+            }
+        }
+        def badGenerator = new JsonGenerator.Options().addConverter(Map) { throw new IllegalStateException('boom') }.build()
+        def streaming = new JsonStreaming().generator(badGenerator).codec(trackingCodec)
+
+        when:
+        streaming.writeArray([[id: 1]].iterator(), new ByteArrayOutputStream())
+
+        then:
+        thrown(IllegalStateException)
+        closed == 1
+
+        when:
+        streaming.writeLines([[id: 1]].iterator(), new ByteArrayOutputStream())
+
+        then:
+        thrown(IllegalStateException)
+        closed == 2
+    }
+
+    String write(List rows, boolean lineBreaks = false) {
+        StringWriter writer = new StringWriter()
+        new JsonStreaming().lineBreaks(lineBreaks).writeArray(rows, writer)
+        return writer.toString()
+    }
 }
@@ -0,0 +1,90 @@
+/*
+* Copyright 2023 Yak.Works - Licensed under the Apache License, Version 2.0 (the "License")
+* You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+*/
+package yakworks.json.groovy
+
+import groovy.json.JsonGenerator
+
+import spock.lang.Specification
+import yakworks.commons.testing.pogos.Gadget
+import yakworks.meta.BasicMetaEntityBuilder
+import yakworks.meta.MetaEntity
+import yakworks.meta.MetaMap
+import yakworks.meta.MetaMapList
+
+class MetaJsonWriterSpec extends Specification {
+
+    static List<String> INCLUDES = [
+        'id', 'name', 'inactive', 'enabled', 'bigDecimal', 'localDate', 'localDateTime', 'kind', 'status',
+        'mapData', 'stringList', 'thing.name', 'thingList.id', 'thingList.name', 'nested.name'
+    ]
+
+    void "writeArray is same as MetaMapList json"() {
+        when:
+        List<Gadget> gadgets = Gadget.buildGadgets(20)
+        gadgets[1].nested = gadgets[2]
+        gadgets[3].thing = null
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, INCLUDES)
+        //hydrate makes it go through the MetaMaps
+        String expected = JsonEngine.toJson(new MetaMapList(gadgets, ment).hydrate())
+
+        StringWriter writer = new StringWriter()
+        int count = MetaJsonWriter.of(ment).writeArray(gadgets, writer)
+
+        then:
+        count == 20
+        writer.toString() == expected
+        //the generator does the same for a MetaMapList that is not hydrated
+        JsonEngine.toJson(new MetaMapList(gadgets, ment)) == expected
+    }
+
+    void "small bufferSize drains as it goes"() {
+        when:
+        List<Gadget> gadgets = Gadget.buildGadgets(10)
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, INCLUDES)
+        def mjw = MetaJsonWriter.of(ment)
+        mjw.bufferSize = 16
+        def out = new ByteArrayOutputStream()
+        mjw.writeArray(gadgets, out)
+
+        then:
+        out.toString('UTF-8') == JsonEngine.toJson(new MetaMapList(gadgets, ment).hydrate())
+    }
+
+    void "toJson for maps and nulls"() {
+        when:
+        MetaEntity ment = BasicMetaEntityBuilder.build(Object, ['name', 'info.phone', 'nada'])
+        Map row = [name: 'Bart', other: 'stuff', info: [phone: '1234', email: 'jo@jo.com'], nada: null]
+        def mjw = MetaJsonWriter.of(ment)
+        def sw = new StringWriter()
+        int count = mjw.writeArray([row, null, [:]], sw)
+
+        then:
+        mjw.toJson(row) == JsonEngine.toJson(new MetaMap(row, ment))
+        mjw.toJson(row) == '{"name":"Bart","info":{"phone":"1234"}}'
+        //null rows are left out when excluding nulls, same as the generator does for a list
+        count == 2
+        sw.toString() == '[{"name":"Bart","info":{"phone":"1234"}},{}]'
+        sw.toString() == JsonEngine.toJson(new MetaMapList([row, null, [:]], ment))
+    }
+
+    void "null rows are written when not excluding nulls"() {
+        when:
+        MetaEntity ment = MetaEntity.of(['name', 'nada'])
+        def generator = new EnhancedJsonGenerator(new JsonGenerator.Options())
+        def sw = new StringWriter()
+        int count = new MetaJsonWriter(ment, generator).writeArray([[name: 'Bart'], null], sw)
+
+        then:
+        count == 2
+        sw.toString() == '[{"name":"Bart","nada":null},null]'
+    }
+
+    void "empty list"() {
+        expect:
+        def sw = new StringWriter()
+        MetaJsonWriter.of(MetaEntity.of(['id'])).writeArray([], sw) == 0
+        sw.toString() == '[]'
+    }
+}
@@ -0,0 +1,168 @@
+/*
+* Copyright 2023 Yak.Works - Licensed under the Apache License, Version 2.0 (the "License")
+* You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+*/
+package yakworks.json.groovy
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.zip.GZIPInputStream
+
+import groovy.json.JsonGenerator
+
+import spock.lang.Specification
+import yakworks.commons.io.GzipCodec
+import yakworks.commons.io.StreamCodec
+import yakworks.commons.testing.pogos.Gadget
+import yakworks.commons.util.BuildSupport
+
+class ParallelJsonExporterSpec extends Specification {
+
+    Path buildDir(String name) {
+        Path dir = Paths.get(BuildSupport.projectDir, "build/$name")
+        dir.toFile().deleteDir()
+        Files.createDirectories(dir)
+        return dir
+    }
+
+    List<Map> generateRows(int count) {
+        (1..count).collect { [id: it, name: "nämé$it", amount: it * 1.5] } as List<Map>
+    }
+
+    void "exportArray is same as JsonEngine"() {
+        when:
+        def rows = generateRows(1055)
+        ByteArrayOutputStream out = new ByteArrayOutputStream()
+        JsonExportStats stats = new ParallelJsonExporter().chunkSize(100).maxInFlight(3).exportArray(rows.iterator(), out)
+
+        then:
+        out.toString('UTF-8') == JsonEngine.toJson(rows)
+        stats.rows == 1055
+        stats.chunks == 11
+        stats.bytes == out.size()
+        stats.chars == JsonEngine.toJson(rows).length()
+    }
+
+    void "exportArray with objects to file on an executor"() {
+        setup:
+        ExecutorService executor = Executors.newFixedThreadPool(3)
+        Path path = buildDir('parallel-export').resolve('gadgets.json')
+
+        when:
+        List<Gadget> gadgets = Gadget.buildGadgets(250)
+        JsonExportStats stats = new ParallelJsonExporter().executor(executor).chunkSize(20).exportArray(gadgets.iterator(), path)
+
+        then:
+        stats.rows == 250
+        stats.bytes == Files.size(path)
+        path.getText('UTF-8') == JsonEngine.toJson(gadgets)
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    void "exportArray empty"() {
+        when:
+        ByteArrayOutputStream out = new ByteArrayOutputStream()
+        JsonExportStats stats = new ParallelJsonExporter().exportArray([].iterator(), out)
+
+        then:
+        out.toString('UTF-8') == '[]'
+        stats.rows == 0
+        stats.chunks == 0
+    }
+
+    void "exportParts"() {
+        when:
+        Path dir = buildDir('parallel-parts')
+        def rows = generateRows(250)
+        JsonExportStats stats = new ParallelJsonExporter().chunkSize(100).exportParts(rows.iterator(), dir, 'rows')
+
+        then:
+        stats.rows == 250
+        stats.chunks == 3
+        stats.files*.fileName*.toString() == ['rows-00000.json', 'rows-00001.json', 'rows-00002.json']
+        stats.bytes == stats.files.sum { Files.size(it) }
+        stats.files.collectMany { JsonEngine.parseJson(it.getText('UTF-8'), List) } == JsonEngine.parseJson(JsonEngine.toJson(rows), List)
+    }
+
+    void "exportArray with parallel gzip"() {
+        when:
+        def rows = generateRows(1055)
+        ByteArrayOutputStream out = new ByteArrayOutputStream()
+        def exporter = new ParallelJsonExporter().chunkSize(100).codec(new GzipCodec().parallel(true).blockSize(2048))
+        JsonExportStats stats = exporter.exportArray(rows.iterator(), out)
+
+        then:
+        stats.rows == 1055
+        stats.chunks == 11
+        stats.bytes == out.size()
+        stats.chars == JsonEngine.toJson(rows).length()
+        new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).getText('UTF-8') == JsonEngine.toJson(rows)
+    }
+
+    void "exportParts with gzip"() {
+        when:
+        Path dir = buildDir('parallel-parts-gz')
+        def rows = generateRows(250)
+        JsonExportStats stats = new ParallelJsonExporter().chunkSize(100).codec(new GzipCodec()).exportParts(rows.iterator(), dir, 'rows')
+
+        then:
+        stats.files*.fileName*.toString() == ['rows-00000.json.gz', 'rows-00001.json.gz', 'rows-00002.json.gz']
+        stats.bytes == stats.files.sum { Files.size(it) }
+        stats.files.collectMany {
+            JsonEngine.parseJson(new GZIPInputStream(Files.newInputStream(it)).getText('UTF-8'), List)
+        } == JsonEngine.parseJson(JsonEngine.toJson(rows), List)
+    }
+
+    void "errors are rethrown"() {
+        when:
+        def rows = [[id: 1], [id: 2]].iterator()
+        def badGenerator = new JsonGenerator.Options().addConverter(Map) { throw new IllegalStateException('boom') }.build()
+        new ParallelJsonExporter().generator(badGenerator).chunkSize(1).exportArray(rows, new ByteArrayOutputStream())
+
+        then:
+        IllegalStateException ex = thrown()
+        ex.message == 'boom'
+    }
+    void "codec stream is closed when the write fails"() {
+        setup:
+        AtomicInteger compressed = new AtomicInteger()
+        AtomicInteger closed = new AtomicInteger()
+        StreamCodec trackingCodec = new GzipCodec() {
+            @Override
+            OutputStream compress(OutputStream out) {
+                compressed.incrementAndGet()
+                return new FilterOutputStream(super.compress(out)) {
+                    @Override
+                    void close() throws IOException {
+                        closed.incrementAndGet()
+                        super.close()
+                    }
+                }
+            }
+        }
+        def badGenerator = new JsonGenerator.Options().addConverter(Map) { throw new IllegalStateException('boom') }.build()
+        def exporter = new ParallelJsonExporter().generator(badGenerator).codec(trackingCodec).chunkSize(1)
+
+        when:
+        exporter.exportArray([[id: 1], [id: 2]].iterator(), new ByteArrayOutputStream())
+
+        then:
+        thrown(IllegalStateException)
+        compressed.get() == 1
+        closed.get() == 1
+
+        when: 'the part is finished, one in flight so its done when the error is thrown'
+        exporter.maxInFlight(1).exportParts([[id: 1], [id: 2]].iterator(), buildDir('parallel-parts-fail'), 'rows')
+
+        then:
+        thrown(IllegalStateException)
+        compressed.get() == 2
+        closed.get() == 2
+    }
+}
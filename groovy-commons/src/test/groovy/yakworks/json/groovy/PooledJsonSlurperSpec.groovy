@@ -0,0 +1,93 @@
+/*
+* Copyright 2023 Yak.Works - Licensed under the Apache License, Version 2.0 (the "License")
+* You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+*/
+package yakworks.json.groovy
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+import groovy.json.JsonParser
+import groovy.json.JsonParserType
+
+import spock.lang.Specification
+
+class PooledJsonSlurperSpec extends Specification {
+
+    String json(int id) {
+        """{"id":$id,"name":"name$id","tags":["a","b"],"nested":{"amount":${id}.5}}"""
+    }
+
+    void "parser is reused on the thread"() {
+        when:
+        def slurper = new PooledJsonSlurper()
+        JsonParser first = slurper.takeParser(10)
+        slurper.releaseParser(first, 10)
+
+        then:
+        slurper.reusable
+        slurper.takeParser(10).is(first)
+        //taken so the next one is new
+        !slurper.takeParser(10).is(first)
+    }
+
+    void "results are not changed by the next parse"() {
+        when:
+        def slurper = new PooledJsonSlurper()
+        Map first = slurper.parseText(json(1)) as Map
+        Map second = slurper.parse(json(2).getBytes('UTF-8')) as Map
+        Map third = slurper.parse(new ByteArrayInputStream(json(3).getBytes('UTF-8'))) as Map
+
+        then:
+        first == [id: 1, name: 'name1', tags: ['a', 'b'], nested: [amount: 1.5]]
+        second.name == 'name2'
+        third.nested.amount == 3.5
+        //modifiable
+        first.put('name', 'changed') == 'name1'
+    }
+
+    void "lazy overlays are not reused"() {
+        expect:
+        !new PooledJsonSlurper().setType(JsonParserType.INDEX_OVERLAY).reusable
+        new PooledJsonSlurper().setType(JsonParserType.INDEX_OVERLAY).setChop(true).setLazyChop(false).reusable
+        new PooledJsonSlurper().setType(JsonParserType.CHARACTER_SOURCE).reusable
+
+        when:
+        def slurper = new PooledJsonSlurper().setType(JsonParserType.INDEX_OVERLAY)
+        Map first = slurper.parseText(json(1)) as Map
+        Map second = slurper.parseText(json(2)) as Map
+
+        then:
+        first.name == 'name1'
+        second.name == 'name2'
+    }
+
+    void "big inputs dont keep the parser"() {
+        when:
+        def slurper = new PooledJsonSlurper().setMaxPooledSize(10)
+        slurper.parseText(json(1))
+
+        then:
+        slurper.takeParser(1) != null
+        slurper.parsers.get() == null
+    }
+
+    void "parse on many threads"() {
+        setup:
+        ExecutorService executor = Executors.newFixedThreadPool(4)
+        def slurper = new PooledJsonSlurper()
+
+        when:
+        List<Callable<Boolean>> tasks = (1..200).collect { int id ->
+            { -> (slurper.parseText(json(id)) as Map).id == id } as Callable<Boolean>
+        }
+        List results = executor.invokeAll(tasks)*.get()
+
+        then:
+        results.every()
+
+        cleanup:
+        executor.shutdown()
+    }
+}
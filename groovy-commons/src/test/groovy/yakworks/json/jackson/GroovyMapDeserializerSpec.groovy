@@ -0,0 +1,148 @@
+/*
+* Copyright 2023 Yak.Works - Licensed under the Apache License, Version 2.0 (the "License")
+* You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+*/
+package yakworks.json.jackson
+
+import com.fasterxml.jackson.core.JsonToken
+import com.fasterxml.jackson.core.type.TypeReference
+import com.fasterxml.jackson.databind.ObjectMapper
+
+import spock.lang.Specification
+import yakworks.commons.map.LazyPathKeyMap
+import yakworks.json.groovy.JsonEngine
+
+class GroovyMapDeserializerSpec extends Specification {
+
+    static class Holder {
+        String name
+        Map data
+        Object other
+        List<Map> items
+    }
+
+    String json = '''{
+        "id": 1,
+        "name": "foo",
+        "amount": 10.25,
+        "big": 12345678901234,
+        "active": true,
+        "nada": null,
+        "customer": {"id": 2, "name": "bar", "address": {"city": "Chicago", "zip": "60601"}},
+        "lines": [
+            {"id": 1, "amount": 1.5, "tags": ["a", "b"]},
+            {"id": 2, "amount": 2.5, "tags": []}
+        ],
+        "nums": [1, 2.5, "three"]
+    }'''
+
+    void "same as the slurper"() {
+        when:
+        Map data = JacksonJson.parseMap(json) as Map
+
+        then:
+        data == JsonEngine.parseJson(json)
+        data.getClass() == LinkedHashMap
+        data.amount instanceof BigDecimal
+        data.big instanceof Long
+        data.keySet() as List == ['id', 'name', 'amount', 'big', 'active', 'nada', 'customer', 'lines', 'nums']
+    }
+
+    void "includes"() {
+        when:
+        Map data = JacksonJson.parseMap(json, ['id', 'customer.name', 'customer.address', 'lines.amount', 'nada']) as Map
+
+        then:
+        data == [
+            id: 1,
+            nada: null,
+            customer: [name: 'bar', address: [city: 'Chicago', zip: '60601']],
+            lines: [[amount: 1.5], [amount: 2.5]]
+        ]
+    }
+
+    void "includes with wildcard"() {
+        expect:
+        JacksonJson.parseMap(json, ['customer.*.city', 'lines.*']) == [
+            customer: [address: [city: 'Chicago']],
+            lines: [[id: 1, amount: 1.5, tags: ['a', 'b']], [id: 2, amount: 2.5, tags: []]]
+        ]
+    }
+
+    void "root array and stream"() {
+        when:
+        String arrayJson = '[{"id":1,"name":"a","x":{"y":1}},{"id":2,"name":"b"}]'
+        def data = JacksonJson.parseMap(new ByteArrayInputStream(arrayJson.bytes), ['id'])
+
+        then:
+        data == [[id: 1], [id: 2]]
+    }
+
+    void "pathKeys"() {
+        when:
+        def deser = new GroovyMapDeserializer(null, true)
+        def parser = JacksonJson.objectMapper.factory.createParser('{"id":1,"customer.name":"bar","customer.id":2}')
+        Map data = deser.read(parser) as Map
+
+        then:
+        data instanceof LazyPathKeyMap
+        data == [id: 1, customer: [name: 'bar', id: 2]]
+    }
+
+    void "registered with GroovyModule"() {
+        setup:
+        ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new GroovyModule().mapDeserializer(new GroovyMapDeserializer(['id', 'lines', 'things'], false)))
+
+        expect:
+        mapper.readValue(json, Map) == [id: 1, lines: JsonEngine.parseJson(json).lines]
+        mapper.readValue(json, Object) == [id: 1, lines: JsonEngine.parseJson(json).lines]
+        mapper.readValue('{"id":1,"other":2}', new TypeReference<Map<String, Object>>() {}) == [id: 1]
+
+        when: 'typed maps are left to jackson'
+        Map<String, JacksonJsonSpec.AdminUser.Thing> things = mapper.readValue('{"a":{"name":"x"}}',
+            new TypeReference<Map<String, JacksonJsonSpec.AdminUser.Thing>>() {})
+
+        then:
+        things.a instanceof JacksonJsonSpec.AdminUser.Thing
+    }
+
+    void "registered on the default mapper"() {
+        setup:
+        ObjectMapper mapper = ObjectMapperWrapper.setupDefaultObjectMapper()
+            .registerModule(new GroovyModule().mapDeserializer(new GroovyMapDeserializer(['id', 'lines'], false)))
+
+        expect:
+        mapper.readValue(json, Map) == [id: 1, lines: JsonEngine.parseJson(json).lines]
+        mapper.writeValueAsString([name: "${'foo'}"]) == '{"name":"foo"}'
+    }
+
+    void "empty object at END_OBJECT"() {
+        setup:
+        def parser = JacksonJson.objectMapper.factory.createParser('{}')
+        parser.nextToken()
+        parser.nextToken()
+
+        expect:
+        parser.currentToken() == JsonToken.END_OBJECT
+        new GroovyMapDeserializer().deserialize(parser, null) == [:]
+        JacksonJson.parseMap('{}') == [:]
+    }
+
+    void "includes are not applied to Map fields in beans"() {
+        setup:
+        ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new GroovyModule().mapDeserializer(new GroovyMapDeserializer(['id'], true)))
+        String beanJson = '{"name":"x","data":{"a":1,"b":{"c":2.5}},"other":{"z":1},"items":[{"id":1,"q":2}]}'
+
+        when:
+        Holder holder = mapper.readValue(beanJson, Holder)
+
+        then:
+        holder.name == 'x'
+        holder.data == [a: 1, b: [c: 2.5]]
+        holder.data.getClass() == LinkedHashMap
+        holder.other == [z: 1]
+        holder.items == [[id: 1, q: 2]]
+    }
+}
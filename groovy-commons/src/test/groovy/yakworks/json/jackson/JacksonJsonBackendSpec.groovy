@@ -0,0 +1,127 @@
+/*
+* Copyright 2023 Yak.Works - Licensed under the Apache License, Version 2.0 (the "License")
+* You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+*/
+package yakworks.json.jackson
+
+import java.time.Instant
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.OffsetDateTime
+import java.time.OffsetTime
+import java.time.Period
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+import spock.lang.Specification
+import yakworks.commons.testing.pogos.Gadget
+import yakworks.commons.testing.pogos.Thing
+import yakworks.json.groovy.GroovyJsonBackend
+import yakworks.json.groovy.JsonEngine
+
+class JacksonJsonBackendSpec extends Specification {
+
+    Map sampleData(Long id) {
+        Calendar cal = Calendar.getInstance(TimeZone.getTimeZone('America/Chicago'))
+        cal.setTimeInMillis(1600000000000L + id)
+        return [
+            num: "$id",
+            inactive: (id % 2 == 0),
+            amount: (id - 1) * 1.25,
+            big: 12345678901234L,
+            dbl: 1.5d,
+            date: new Date(1600000000000L + id),
+            calendar: cal,
+            instant: Instant.ofEpochMilli(1600000000000L),
+            localDate: LocalDate.parse('2021-02-01'),
+            localDateTime: LocalDateTime.parse("2017-10-19T11:40:00"),
+            localTime: LocalTime.parse("11:40:00"),
+            offsetDateTime: OffsetDateTime.of(2021, 2, 1, 10, 0, 0, 0, ZoneOffset.ofHours(-5)),
+            offsetTime: OffsetTime.of(10, 0, 0, 0, ZoneOffset.UTC),
+            zonedDateTime: ZonedDateTime.of(2021, 2, 1, 10, 0, 0, 0, ZoneOffset.UTC),
+            period: Period.ofDays(3),
+            currency: Currency.getInstance("USD"),
+            uri: new URI('https://yak.works/a?b=c'),
+            uuid: UUID.fromString('6f0f8bbd-5f0a-4b6f-9c2a-2b3a9f0d1e4f'),
+            escapes: 'quote " slash \\ tab \t newline \n ünïcode \u0001',
+            ext: [name: "bill", nada: null],
+            list: ['foo', null, 2],
+            set: ['a', 'b'] as LinkedHashSet,
+            array: ['a', null, 'b'] as String[],
+            intArray: [1, 2] as int[],
+            kind: Gadget.Kind.PARENT,
+            someNull: null,
+            thing: Thing.of(1, 'joe')
+        ]
+    }
+
+    void "same output as the groovy generator"() {
+        setup:
+        JacksonJsonBackend jackson = new JacksonJsonBackend(new JsonEngine().build())
+
+        expect:
+        jackson.toJson(data) == JsonEngine.toJson(data)
+
+        where:
+        data << [
+            sampleData(1), sampleData(2), [sampleData(3), sampleData(4)],
+            Thing.of(1, 'joe'), Gadget.buildGadgets(3), [a: [b: [c: [1, 2, 3]]]], [], [:], 'foo', 1.0
+        ]
+    }
+
+    void "same bytes as the groovy backend"() {
+        setup:
+        JacksonJsonBackend jackson = new JacksonJsonBackend(new JsonEngine().build())
+        Map data = sampleData(1)
+        ByteArrayOutputStream out = new ByteArrayOutputStream()
+        jackson.writeTo(data, out)
+
+        expect:
+        jackson.toBytes(data) == JsonEngine.toBytes(data)
+        out.toByteArray() == JsonEngine.toBytes(data)
+    }
+
+    void "same output including nulls"() {
+        setup:
+        JacksonJsonBackend jackson = new JacksonJsonBackend(new JsonEngine().excludeNulls(false).build())
+        Map data = sampleData(1)
+
+        expect:
+        jackson.toJson(data) == JsonEngine.toJson(data, false)
+        jackson.toJson(data).contains('"someNull":null')
+    }
+
+    void "date format settings"() {
+        setup:
+        def engine = new JsonEngine().dateFormat('yyyy-MM-dd HH:mm').timeZone('America/New_York').build()
+        JacksonJsonBackend jackson = new JacksonJsonBackend(engine)
+        Map data = [date: new Date(1600000000000L)]
+
+        expect:
+        jackson.toJson(data) == engine.jsonGenerator.toJson(data)
+        jackson.toJson(data) == '{"date":"2020-09-13 08:26"}'
+    }
+
+    void "parseJson same as slurper"() {
+        setup:
+        JacksonJsonBackend jackson = new JacksonJsonBackend(new JsonEngine().build())
+        String json = '{"num":"1","inactive":false,"amount":0.25,"count":3,"big":12345678901234,"list":[1,"a",null],"nested":{"a":1}}'
+
+        expect:
+        jackson.parseJson(json) == JsonEngine.slurper.parseText(json)
+        jackson.parseJson(json).amount instanceof BigDecimal
+    }
+
+    void "backend by config"() {
+        expect:
+        new JsonEngine().build().jsonBackend instanceof GroovyJsonBackend
+        new JsonEngine().backend('jackson').build().jsonBackend instanceof JacksonJsonBackend
+
+        when:
+        new JsonEngine().backend('foo').build()
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -9,6 +9,10 @@ import java.time.LocalDateTime
 
 import groovy.transform.CompileStatic
 
+import com.fasterxml.jackson.annotation.JsonView
+import com.fasterxml.jackson.core.type.TypeReference
+import com.fasterxml.jackson.databind.ObjectMapper
+
 import spock.lang.Specification
 import yakworks.commons.testing.pogos.Thing
 
@@ -32,6 +36,18 @@ class JacksonJsonSpec extends Specification {
         }
     }
 
+    static class Views {
+        static class Public {}
+        static class Admin extends Public {}
+    }
+
+    static class ViewUser {
+        @JsonView(Views.Public)
+        String name
+        @JsonView(Views.Admin)
+        String secret
+    }
+
     Map generateData(Long id) {
         return [
             num: "$id",
@@ -66,6 +82,82 @@ class JacksonJsonSpec extends Specification {
         res == expected
     }
 
+    void "toBytes and writeTo"() {
+        setup:
+        boolean closed = false
+        def out = new ByteArrayOutputStream() {
+            @Override
+            void close() { closed = true }
+        }
+
+        when:
+        Map data = [name: 'nämé', list: [1, 2]]
+        JacksonJson.writeTo(data, out)
+
+        then:
+        !closed
+        out.toByteArray() == JacksonJson.toJson(data).getBytes('UTF-8')
+        JacksonJson.toBytes(data) == JacksonJson.toJson(data).getBytes('UTF-8')
+    }
+
+    void "readers and writers are cached"() {
+        setup:
+        def wrapper = new ObjectMapperWrapper()
+        def listType = new TypeReference<List<AdminUser.Thing>>() {}.type
+
+        expect:
+        wrapper.reader(Map).is(wrapper.reader(Map))
+        wrapper.reader(listType).is(wrapper.reader(listType))
+        //a new but equal ParameterizedType is the same key
+        wrapper.reader(listType).is(wrapper.reader(new TypeReference<List<AdminUser.Thing>>() {}.type))
+        !wrapper.reader(Map).is(wrapper.reader(Map, Views.Public))
+        wrapper.writer(Object).is(wrapper.writer(Object))
+        wrapper.writer(ViewUser, Views.Public).is(wrapper.writer(ViewUser, Views.Public))
+
+        when:
+        List<AdminUser.Thing> things = wrapper.fromString('[{"name":"a"},{"name":"b"}]', listType)
+
+        then:
+        things*.name == ['a', 'b']
+        things[0] instanceof AdminUser.Thing
+        wrapper.fromBytes('{"a":1}'.bytes, Map) == [a: 1]
+
+        when:
+        def user = new ViewUser(name: 'bob', secret: 'x')
+        def reader = wrapper.reader(Map)
+        wrapper.clearCache()
+
+        then:
+        wrapper.writer(ViewUser, Views.Public).writeValueAsString(user) == '{"name":"bob"}'
+        wrapper.writer(ViewUser, Views.Admin).writeValueAsString(user) == '{"name":"bob","secret":"x"}'
+        !wrapper.reader(Map).is(reader)
+    }
+
+    void "JacksonJson clearCache"() {
+        when:
+        def writer = JacksonJson.writer(Object)
+        JacksonJson.clearCache()
+
+        then:
+        !JacksonJson.writer(Object).is(writer)
+        JacksonJson.writer(Object).is(JacksonJson.writer(Object))
+    }
+
+    void "wrapper serializes with out the caches"() {
+        setup:
+        def wrapper = new ObjectMapperWrapper(new ObjectMapper())
+        wrapper.reader(Map)
+        def bytesOut = new ByteArrayOutputStream()
+
+        when:
+        new ObjectOutputStream(bytesOut).writeObject(wrapper)
+        def copy = (ObjectMapperWrapper) new ObjectInputStream(new ByteArrayInputStream(bytesOut.toByteArray())).readObject()
+
+        then:
+        copy.fromString('{"a":1}', Map) == [a: 1]
+        copy.reader(Map).is(copy.reader(Map))
+    }
+
     void "parseJson"() {
         when:
         def jsonString = '{"num":"1","inactive":false,"amount":0.00,"localDate":"2021-02-01"}'
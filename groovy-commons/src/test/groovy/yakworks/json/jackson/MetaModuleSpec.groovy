@@ -0,0 +1,124 @@
+/*
+* Copyright 2023 Yak.Works - Licensed under the Apache License, Version 2.0 (the "License")
+* You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+*/
+package yakworks.json.jackson
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import spock.lang.Specification
+import yakworks.commons.map.Maps
+import yakworks.commons.model.SimplePagedList
+import yakworks.commons.testing.pogos.Gadget
+import yakworks.meta.BasicMetaEntityBuilder
+import yakworks.meta.MetaEntity
+import yakworks.meta.MetaMap
+import yakworks.meta.MetaMapList
+
+class MetaModuleSpec extends Specification {
+
+    static List<String> INCLUDES = [
+        'id', 'name', 'inactive', 'bigDecimal', 'localDate', 'localDateTime', 'kind', 'status',
+        'mapData', 'stringList', 'thing.name', 'nested.name'
+    ]
+
+    List<Gadget> buildGadgets(int count) {
+        List<Gadget> gadgets = Gadget.buildGadgets(count)
+        gadgets[1].nested = gadgets[2]
+        gadgets[3].thing = null
+        return gadgets
+    }
+
+    void "MetaMapList is same json as plain maps"() {
+        when:
+        List<Gadget> gadgets = buildGadgets(10)
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, INCLUDES)
+        //cloned to plain LinkedHashMaps so it goes through the normal jackson map serializer
+        String expected = JacksonJson.stringify(Maps.clone(new MetaMapList(gadgets, ment) as Collection<Map>))
+
+        then:
+        expected.contains('"thing":{"name":"thingy1"}')
+        expected.contains('"nested":{"name":"Gadget3"}')
+        JacksonJson.stringify(new MetaMapList(gadgets, ment)) == expected
+        //hydrated goes through the MetaMapSerializer
+        JacksonJson.stringify(new MetaMapList(gadgets, ment).hydrate()) == expected
+    }
+
+    void "MetaMap is same json as plain map"() {
+        when:
+        Gadget gadget = buildGadgets(5)[1]
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, INCLUDES)
+        MetaMap mmap = new MetaMap(gadget, ment)
+        String expected = JacksonJson.stringify(Maps.clone(mmap))
+
+        then:
+        JacksonJson.stringify(mmap) == expected
+        expected.startsWith('{"id":2,"name":"Gadget2","inactive":false,"bigDecimal":101.99,')
+    }
+
+    void "MetaMap with put and nulls"() {
+        when:
+        MetaMap mmap = new MetaMap([id: 1, name: 'foo', other: null], MetaEntity.of(['id', 'name', 'other']))
+        mmap.put('extra', 'bar')
+
+        then:
+        JacksonJson.stringify(mmap) == '{"id":1,"name":"foo","extra":"bar"}'
+        //same as a plain map on the default mapper and on a plain one
+        JacksonJson.stringify(mmap) == JacksonJson.stringify(Maps.clone(mmap))
+        new ObjectMapper().writeValueAsString(mmap) == '{"id":1,"name":"foo","other":null,"extra":"bar"}'
+        new ObjectMapper().writeValueAsString(mmap) == new ObjectMapper().writeValueAsString(Maps.clone(mmap))
+    }
+
+    void "MetaMapList without metaEntity"() {
+        when:
+        def mlist = new MetaMapList([[id: 1, name: 'foo'], [id: 2, name: null]])
+
+        then:
+        JacksonJson.stringify(mlist) == '[{"id":1,"name":"foo"},{"id":2}]'
+    }
+
+    void "writeTotalCount"() {
+        setup:
+        ObjectMapper mapper = new ObjectMapper().registerModule(new MetaModule(true))
+        MetaEntity ment = MetaEntity.of(['id', 'name'])
+
+        when:
+        def paged = new SimplePagedList([[id: 1, name: 'foo'], [id: 2, name: 'bar']], 100)
+        String res = mapper.writeValueAsString(new MetaMapList(paged, ment))
+
+        then:
+        res == '{"totalCount":100,"data":[{"id":1,"name":"foo"},{"id":2,"name":"bar"}]}'
+
+        when: 'nested ones are plain arrays'
+        String nested = mapper.writeValueAsString([items: new MetaMapList(paged, ment), more: [new MetaMapList(paged, ment)]])
+
+        then:
+        nested == '{"items":[{"id":1,"name":"foo"},{"id":2,"name":"bar"}],"more":[[{"id":1,"name":"foo"},{"id":2,"name":"bar"}]]}'
+    }
+
+    void "writeTotalCount on the default mapper"() {
+        setup:
+        ObjectMapper mapper = ObjectMapperWrapper.setupDefaultObjectMapper().registerModule(new MetaModule(true))
+        MetaEntity ment = MetaEntity.of(['id', 'name'])
+
+        when:
+        def paged = new SimplePagedList([[id: 1, name: 'foo'], [id: 2, name: null]], 100)
+
+        then:
+        mapper.registeredModuleIds.containsAll([MetaModule.name, "${MetaModule.name}.writeTotalCount".toString()])
+        mapper.writeValueAsString(new MetaMapList(paged, ment)) == '{"totalCount":100,"data":[{"id":1,"name":"foo"},{"id":2}]}'
+        //the one from findAndRegisterModules is still arrays
+        ObjectMapperWrapper.setupDefaultObjectMapper().writeValueAsString(new MetaMapList(paged, ment)) == '[{"id":1,"name":"foo"},{"id":2}]'
+    }
+
+    void "nulls are written when the mapper includes them"() {
+        setup:
+        ObjectMapper mapper = new ObjectMapper().registerModule(new MetaModule())
+
+        when:
+        def mlist = new MetaMapList([[id: 1, name: null]], MetaEntity.of(['id', 'name']))
+
+        then:
+        mapper.writeValueAsString(mlist) == '[{"id":1,"name":null}]'
+        mapper.writeValueAsString(mlist.hydrate()) == '[{"id":1,"name":null}]'
+    }
+}
@@ -0,0 +1,115 @@
+/*
+* Copyright 2023 Yak.Works - Licensed under the Apache License, Version 2.0 (the "License")
+* You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+*/
+package yakworks.meta
+
+import spock.lang.Specification
+import yakworks.commons.testing.pogos.Gadget
+import yakworks.commons.testing.pogos.GadgetStatus
+import yakworks.commons.testing.pogos.Thing
+
+class MetaEntityAccessorSpec extends Specification {
+
+    void "accessorFor is cached per class"() {
+        when:
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, ['id', 'name', 'thing.name'])
+        MetaEntityAccessor acc = ment.accessorFor(Gadget)
+
+        then:
+        acc.is(ment.accessorFor(Gadget))
+        !acc.is(ment.accessorFor(LinkedHashMap))
+        acc.keys as List == ['id', 'name', 'thing']
+        acc.indexOf('name') == 1
+        acc.indexOf('nope') == -1
+        acc.nestedEntities[0] == null
+        acc.nestedEntities[2].metaProps.keySet() as List == ['name']
+    }
+
+    void "accessor is rebuilt when metaProps change"() {
+        when:
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, ['id', 'name'])
+        MetaEntityAccessor acc = ment.accessorFor(Gadget)
+        ment.merge(BasicMetaEntityBuilder.build(Gadget, ['kind']))
+
+        then:
+        !acc.is(ment.accessorFor(Gadget))
+        ment.accessorFor(Gadget).keys as List == ['id', 'name', 'kind']
+    }
+
+    void "accessor is rebuilt when a prop is replaced and the count is the same"() {
+        when:
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, ['id', 'name'])
+        MetaEntityAccessor acc = ment.accessorFor(Gadget)
+        ment.metaProps.remove('name')
+        ment.metaProps['kind'] = new MetaProp('kind', null)
+
+        then:
+        acc.isStale(ment)
+        ment.accessorFor(Gadget).keys as List == ['id', 'kind']
+        ment.accessorFor(Gadget).getValue(Gadget.create(1), 1) == Gadget.create(1).kind
+    }
+
+    void "frozen accessor is never stale"() {
+        when:
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, ['id', 'name']).freeze()
+        MetaEntityAccessor acc = ment.accessorFor(Gadget)
+
+        then:
+        !acc.isStale(ment)
+        acc.is(ment.accessorFor(Gadget))
+    }
+
+    void "getValue reads from pogo and map"() {
+        when:
+        MetaEntity ment = MetaEntity.of(['id', 'name'])
+        def gadget = new Gadget(id: 1, name: 'foo')
+        def accPogo = ment.accessorFor(Gadget)
+        def accMap = ment.accessorFor(LinkedHashMap)
+
+        then:
+        accPogo.getValue(gadget, 0) == 1
+        accPogo.getValue(gadget, 1) == 'foo'
+        accMap.getValue([id: 2, name: 'bar'], 1) == 'bar'
+    }
+
+    void "MetaMap uses accessor and shares includes"() {
+        when:
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, ['id', 'name', 'status', 'thing.name'])
+        def gadget = new Gadget(id: 1, name: 'foo', status: GadgetStatus.Active, thing: new Thing(name: 'thingy'))
+        def mmap = new MetaMap(gadget, ment)
+        def mmap2 = new MetaMap(new Gadget(id: 2), ment)
+
+        then:
+        mmap.getIncludes().is(mmap2.getIncludes())
+        mmap.getAccessor().is(ment.accessorFor(Gadget))
+        mmap == [id: 1, name: 'foo', status: [id: 1, name: 'Active'], thing: [name: 'thingy']]
+
+    }
+
+    void "put copies the shared includes"() {
+        when:
+        MetaEntity ment = MetaEntity.of(['id', 'name'])
+        def mmap = new MetaMap([id: 1, name: 'foo'], ment)
+        def mmap2 = new MetaMap([id: 2, name: 'bar'], ment)
+        mmap.put('name', 'baz')
+        mmap.put('extra', 'buzz')
+
+        then:
+        mmap == [id: 1, name: 'baz', extra: 'buzz']
+        mmap.getIncludes().contains('extra')
+        !mmap2.getIncludes().contains('extra')
+        !ment.accessorFor(LinkedHashMap).keys.contains('extra')
+    }
+
+    void "hydrated MetaMap switches to map accessor"() {
+        when:
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, ['id', 'name', 'thing.name'])
+        def mmap = new MetaMap(new Gadget(id: 1, name: 'foo', thing: new Thing(name: 'thingy')), ment)
+        mmap.hydrate()
+
+        then:
+        mmap.getAccessor().entityClass == LinkedHashMap
+        mmap == [id: 1, name: 'foo', thing: [name: 'thingy']]
+    }
+}
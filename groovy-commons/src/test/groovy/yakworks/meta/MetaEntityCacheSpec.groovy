@@ -0,0 +1,116 @@
+/*
+* Copyright 2023 Yak.Works - Licensed under the Apache License, Version 2.0 (the "License")
+* You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+*/
+package yakworks.meta
+
+import spock.lang.Specification
+import yakworks.commons.testing.pogos.Gadget
+import yakworks.commons.testing.pogos.Thing
+
+class MetaEntityCacheSpec extends Specification {
+
+    void "get caches by class and includes"() {
+        when:
+        def cache = new MetaEntityCache()
+        MetaEntity ment = cache.get(Gadget, ['id', 'name', 'thing.name'])
+
+        then:
+        ment == BasicMetaEntityBuilder.build(Gadget, ['id', 'name', 'thing.name'])
+        cache.get(Gadget, ['id', 'name', 'thing.name']).is(ment)
+        cache.get(Gadget.name, ['id', 'name', 'thing.name']).is(ment)
+        //different order is a different key
+        !cache.get(Gadget, ['name', 'id', 'thing.name']).is(ment)
+        cache.hitCount == 2
+        cache.missCount == 2
+        cache.size() == 2
+    }
+
+    void "blacklist is part of the key"() {
+        when:
+        def cache = new MetaEntityCache()
+        MetaEntity ment = cache.get(Gadget, ['id', 'name'])
+        MetaEntity noName = cache.get(Gadget, ['id', 'name'], ['name'])
+
+        then:
+        !noName.is(ment)
+        noName.metaProps.keySet() == ['id'] as Set
+        ment.metaProps.keySet() == ['id', 'name'] as Set
+        cache.get(Gadget, ['id', 'name'], ['name']).is(noName)
+        cache.get(Gadget, ['id', 'name'], []).is(ment)
+
+        when: 'the class blacklist changes'
+        BasicMetaEntityBuilder.BLACKLIST.put(Gadget.name, ['inactive'] as Set<String>)
+
+        then:
+        !cache.get(Gadget, ['id', 'name']).is(ment)
+
+        cleanup:
+        BasicMetaEntityBuilder.BLACKLIST.remove(Gadget.name)
+    }
+
+    void "null result is cached"() {
+        when:
+        def cache = new MetaEntityCache()
+
+        then:
+        cache.get(Gadget, ['nope']) == null
+        cache.get(Gadget, ['nope']) == null
+        cache.hitCount == 1
+        cache.missCount == 1
+    }
+
+    void "evicts oldest when maxSize is hit"() {
+        when:
+        def cache = new MetaEntityCache(2)
+        MetaEntity first = cache.get(Gadget, ['id'])
+        cache.get(Gadget, ['name'])
+        cache.get(Thing, ['name'])
+
+        then:
+        cache.size() == 2
+        cache.evictionCount == 1
+        !cache.get(Gadget, ['id']).is(first)
+        cache.stats == [size: 2L, maxSize: 2L, hits: 0L, misses: 4L, evictions: 2L]
+    }
+
+    void "evicts least recently used"() {
+        when:
+        def cache = new MetaEntityCache(2)
+        MetaEntity first = cache.get(Gadget, ['id'])
+        cache.get(Gadget, ['name'])
+        //touch first so name is the eldest
+        cache.get(Gadget, ['id'])
+        cache.get(Thing, ['name'])
+
+        then:
+        cache.size() == 2
+        cache.get(Gadget, ['id']).is(first)
+        cache.evictionCount == 1
+    }
+
+    void "threads share the same instance"() {
+        when:
+        def cache = new MetaEntityCache()
+        List<MetaEntity> ments = Collections.synchronizedList([])
+        List<Thread> threads = (1..8).collect {
+            Thread.start { ments << cache.get(Gadget, ['id', 'name', 'thing.name']) }
+        }
+        threads*.join()
+
+        then:
+        ments.size() == 8
+        ments.every { it.is(ments[0]) }
+        cache.size() == 1
+    }
+
+    void "clear"() {
+        when:
+        def cache = MetaEntityCache.instance
+        cache.get(Thing, ['id'])
+        cache.clear()
+
+        then:
+        cache.size() == 0
+    }
+}
@@ -141,4 +141,58 @@ class MetaEntitySpec extends Specification {
         and:
         ment.flattenProps() == (includes as Set)
     }
+
+    void "freeze"() {
+        when:
+        def includes = ['id', 'name', 'localDate', 'thing.name', 'thing.id']
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, includes)
+        int hash = ment.hashCode()
+        MetaEntity frozen = BasicMetaEntityBuilder.build(Gadget, includes).freeze()
+
+        then:
+        frozen.isFrozen()
+        frozen.metaProps['thing'].isFrozen()
+        frozen.metaProps['name'].isFrozen()
+        frozen == ment
+        frozen.hashCode() == hash
+        frozen.metaEntityProps.keySet() == ['thing'] as Set
+        frozen.basicMetaProps == ['id', 'name', 'localDate'] as Set
+        frozen.flattenProps() == ['id', 'name', 'localDate', 'thing.name', 'thing.id'] as Set
+        //same instance each time
+        frozen.flatten().is(frozen.flatten())
+        frozen.metaProps['name'].title == 'Name'
+        frozen.freeze().is(frozen)
+    }
+
+    void "frozen can not be modified"() {
+        when:
+        MetaEntity frozen = BasicMetaEntityBuilder.build(Gadget, ['id', 'thing.name']).freeze()
+        action(frozen)
+
+        then:
+        thrown(UnsupportedOperationException)
+
+        where:
+        action << [
+            { MetaEntity m -> m.metaProps['foo'] = new MetaProp('foo', String) },
+            { MetaEntity m -> m.metaProps = [:] },
+            { MetaEntity m -> m.merge(new MetaEntity()) },
+            { MetaEntity m -> m.addBlacklist(['id'] as Set) },
+            { MetaEntity m -> m.metaProps['id'].title = 'foo' },
+            { MetaEntity m -> m.metaEntityProps['thing'].metaProps.remove('name') },
+            { MetaEntity m -> m.includes.add('foo') }
+        ]
+    }
+
+    void "frozen serialize"() {
+        when:
+        MetaEntity frozen = BasicMetaEntityBuilder.build(Gadget, ['id', 'thing.name']).freeze()
+        MetaEntity deserialMent = SerializationUtils.deserialize(SerializationUtils.serialize(frozen)) as MetaEntity
+
+        then:
+        deserialMent.isFrozen()
+        deserialMent == frozen
+        deserialMent.hashCode() == frozen.hashCode()
+        deserialMent.flattenProps() == ['id', 'thing.name'] as Set
+    }
 }
@@ -10,6 +10,7 @@ import org.springframework.util.SerializationUtils
 
 import spock.lang.Specification
 import yakworks.commons.beans.PropertyTools
+import yakworks.commons.map.CompactMap
 import yakworks.commons.testing.pogos.Gadget
 import yakworks.commons.testing.pogos.Thing
 
@@ -330,4 +331,40 @@ class MetaMapHydrateSerializeSpec extends Specification {
         // NOTE: pogos dont get wrapped unless they are refed in includes
         map.nested instanceof NestedBean
     }
+
+    void "hydrateCompact"() {
+        when:
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, ['id', 'name', 'kind', 'status', 'thing.name', 'mapData', 'stringList'])
+        List<Gadget> gadgets = Gadget.buildGadgets(3)
+        def expected = new MetaMapList(gadgets, ment).hydrate()
+        def mlist = new MetaMapList(gadgets, ment).hydrateCompact()
+
+        then:
+        mlist == expected
+        mlist[0].getEntityOrMap() instanceof CompactMap
+        //keys are shared
+        (mlist[0].getEntityOrMap() as CompactMap).getKeys().is((mlist[2].getEntityOrMap() as CompactMap).getKeys())
+        (mlist[0].getEntityOrMap() as CompactMap).getKeys().is(ment.accessorFor(Gadget).compactKeys)
+        mlist[1].thing instanceof MetaMap
+        mlist[1].thing == [name: 'thingy2']
+
+        when: 'serialized'
+        MetaMapList deserial = SerializationUtils.deserialize(SerializationUtils.serialize(mlist)) as MetaMapList
+
+        then:
+        deserial == expected
+        (deserial[0].getEntityOrMap() as CompactMap).getKeys().is((deserial[1].getEntityOrMap() as CompactMap).getKeys())
+    }
+
+    void "hydrateCompact with put"() {
+        when:
+        MetaEntity ment = BasicMetaEntityBuilder.build(PogoBean, ['name', 'nested.prop1'])
+        def metamap = new MetaMap(pogoBean(), ment)
+        metamap.put('name', 'Lisa')
+        metamap.hydrateCompact()
+
+        then:
+        metamap == [name: 'Lisa', nested: [prop1: 'foo']]
+        metamap.getEntityOrMap() instanceof CompactMap
+    }
 }
@@ -5,6 +5,8 @@
 package yakworks.meta
 
 import java.time.LocalDate
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
 
 import org.springframework.util.SerializationUtils
 
@@ -81,4 +83,42 @@ class MetaMapListSerializeSpec extends Specification {
         }
     }
 
+    void "hydrate parallel keeps order"() {
+        when:
+        List<Gadget> gadgets = Gadget.buildGadgets(1000)
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, ['id', 'name', 'kind', 'thing.name'])
+        ExecutorService executor = Executors.newFixedThreadPool(4)
+        def mlist = new MetaMapList(gadgets, ment).hydrate(executor, 10, 30)
+        def expected = new MetaMapList(gadgets, ment).hydrate()
+        executor.shutdown()
+
+        then:
+        mlist.size() == 1000
+        mlist == expected
+        mlist.getListToUse().every { it instanceof MetaMap }
+        (0..<1000).every { int i -> mlist[i].id == i + 1 }
+        mlist[3] == [id: 4, name: 'Gadget4', kind: 'PARENT', thing: [name: 'thingy4']]
+    }
+
+    void "hydrate parallel under threshold and common pool"() {
+        when:
+        MetaEntity ment = BasicMetaEntityBuilder.build(Gadget, ['id', 'name'])
+        def small = new MetaMapList(Gadget.buildGadgets(5), ment).hydrateParallel()
+        def big = new MetaMapList(Gadget.buildGadgets(2500), ment).hydrateParallel()
+
+        then:
+        small.size() == 5
+        small[4] == [id: 5, name: 'Gadget5']
+        big.size() == 2500
+        big[2499] == [id: 2500, name: 'Gadget2500']
+    }
+
+    void "hydrate parallel rethrows"() {
+        when:
+        MetaEntity ment = MetaEntity.of(['id', 'nope'])
+        new MetaMapList(Gadget.buildGadgets(20), ment).hydrate(Executors.newFixedThreadPool(2), 1, 5)
+
+        then:
+        thrown(MissingPropertyException)
+    }
 }